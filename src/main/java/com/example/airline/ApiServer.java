@@ -0,0 +1,478 @@
+package com.example.airline;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP/JSON front end for kiosks and partner channels, serving {@link ReservationService} without
+ * the desktop client:
+ *
+ * <pre>
+ * GET    /api/flights?source=&amp;destination=&amp;date=&amp;class=&amp;connections=
+ * GET    /api/quote?flight=&amp;class=&amp;concession=
+ * POST   /api/bookings            JSON object with the {@link ReservationService.BookingRequest} fields
+ * GET    /api/bookings/{pnr}
+ * DELETE /api/bookings/{pnr}?reason=
+ * GET    /api/metrics
+ * </pre>
+ *
+ * <p>The server listens on loopback unless airline.api.host says otherwise. POST and DELETE need an
+ * {@value #API_KEY_HEADER} header matching one of the channel keys in airline.api.keys, given as
+ * {@code channel=key,channel=key}; with no keys configured the API is read-only. Cancellations are
+ * recorded with the channel in their reason.
+ *
+ * <p>The server's dispatcher thread only hands each exchange to a bounded worker pool. When the
+ * pool and its queue are full the request is answered 503 at once instead of piling up, so an
+ * overload costs a short refusal rather than timeouts for everyone. Invalid requests answer 400,
+ * refused ones (sold out, already cancelled) 409.
+ */
+public final class ApiServer {
+
+    static final String API_KEY_HEADER = "X-Api-Key";
+
+    private static final String HOST = System.getProperty("airline.api.host", "127.0.0.1");
+    private static final int PORT = Integer.getInteger("airline.api.port", 8080);
+    private static final int THREADS = Integer.getInteger("airline.api.threads", 32);
+    private static final int QUEUE_SIZE = Integer.getInteger("airline.api.queueSize", 1024);
+    private static final int BACKLOG = Integer.getInteger("airline.api.backlog", 1024);
+
+    // Cancellations are recorded against the system user, as on the desktop screens, with the channel in the reason
+    private static final int API_USER_ID = 1;
+
+    private static final String BOOKINGS = "/api/bookings";
+
+    static {
+        // Chunked responses go out as several small writes; with Nagle on, each can wait for a delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, byte[]> channelKeys = channelKeys(System.getProperty("airline.api.keys", ""));
+    private final List<Route> routes = new ArrayList<>();
+    private final RequestMetrics unmatched = new RequestMetrics("other");
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // channel is the authenticated caller on write routes, null on read routes
+    @FunctionalInterface
+    private interface Endpoint {
+        Response handle(HttpExchange exchange, Map<String, String> query, String pnr, String channel) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write(Json.Writer json) throws IOException;
+    }
+
+    private record Response(int status, Body body) {}
+
+    // With a pnr route, path is the collection and the PNR is the single segment after it
+    private record Route(String method, String path, boolean pnr, Endpoint endpoint, RequestMetrics metrics) {}
+
+    private ApiServer(int port) throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+                    Thread thread = new Thread(runnable, "api-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        workers.allowCoreThreadTimeOut(true);
+
+        route("GET", "/api/flights", false, this::search);
+        route("GET", "/api/quote", false, this::quote);
+        route("POST", BOOKINGS, false, this::book);
+        route("GET", BOOKINGS, true, this::lookup);
+        route("DELETE", BOOKINGS, true, this::cancel);
+        route("GET", "/api/metrics", false, this::metrics);
+
+        server = HttpServer.create(new InetSocketAddress(HOST, port), BACKLOG);
+        server.createContext("/", this::dispatch);
+        // Handlers run on the dispatcher thread and only queue the exchange; see dispatch()
+        server.setExecutor(null);
+    }
+
+    public static ApiServer start(int port) throws IOException {
+        ApiServer api = new ApiServer(port);
+        api.server.start();
+        System.out.println("API listening on " + HOST + ":" + api.server.getAddress().getPort() + " with " + THREADS +
+                " workers and " + api.channelKeys.size() + " channel keys");
+        return api;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting, lets exchanges in progress finish for up to delaySeconds, then stops the workers
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(delaySeconds, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("API stopped");
+    }
+
+    /**
+     * Runs the API without the desktop client. The caches the read endpoints use are loaded
+     * before the port opens, so the first requests do not pay for them.
+     */
+    public static void main(String[] args) throws Exception {
+        FareService.getFares(FlightInventoryCache.getActiveFlights(), "Economy");
+        ApiServer api = start(args.length > 0 ? Integer.parseInt(args[0]) : PORT);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> api.stop(2)));
+    }
+
+    private void route(String method, String path, boolean pnr, Endpoint endpoint) {
+        String name = method + " " + path + (pnr ? "/{pnr}" : "");
+        routes.add(new Route(method, path, pnr, endpoint, new RequestMetrics(name)));
+    }
+
+    private void dispatch(HttpExchange exchange) {
+        long start = System.nanoTime();
+        try {
+            workers.execute(() -> serve(exchange, start));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            respond(exchange, start, unmatched, () -> error(503, "Server is busy, please retry"));
+        }
+    }
+
+    private void serve(HttpExchange exchange, long start) {
+        inFlight.incrementAndGet();
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+
+            boolean pathMatched = false;
+            for (Route route : routes) {
+                String pnr = null;
+                if (route.pnr()) {
+                    if (!path.startsWith(route.path() + "/")) {
+                        continue;
+                    }
+                    pnr = path.substring(route.path().length() + 1);
+                    if (pnr.isEmpty() || pnr.indexOf('/') >= 0) {
+                        continue;
+                    }
+                } else if (!path.equals(route.path())) {
+                    continue;
+                }
+                pathMatched = true;
+                if (route.method().equals(method)) {
+                    String matchedPnr = pnr;
+                    respond(exchange, start, route.metrics(), () -> {
+                        String channel = null;
+                        if (!"GET".equals(method)) {
+                            channel = authenticate(exchange);
+                            if (channel == null) {
+                                return error(401, "A valid " + API_KEY_HEADER + " header is required");
+                            }
+                        }
+                        return route.endpoint().handle(exchange, query(exchange), matchedPnr, channel);
+                    });
+                    return;
+                }
+            }
+
+            Response unroutable = pathMatched ? error(405, "Method not allowed") : error(404, "Not found");
+            respond(exchange, start, unmatched, () -> unroutable);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle() throws Exception;
+    }
+
+    private void respond(HttpExchange exchange, long start, RequestMetrics metrics, Handler handler) {
+        int status = 500;
+        try {
+            Response response;
+            try {
+                response = handler.handle();
+            } catch (IllegalArgumentException e) {
+                response = error(400, e.getMessage());
+            } catch (IllegalStateException e) {
+                response = error(409, e.getMessage());
+            } catch (Exception e) {
+                System.err.println("API error on " + exchange.getRequestMethod() + " " +
+                        exchange.getRequestURI().getPath() + ": " + e);
+                response = error(500, "Internal error");
+            }
+
+            status = response.status();
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            // Length 0 means chunked: the body is encoded straight onto the socket as it is written
+            exchange.sendResponseHeaders(status, 0);
+            try (Json.Writer json = new Json.Writer(exchange.getResponseBody())) {
+                response.body().write(json);
+            }
+        } catch (IOException e) {
+            // The client went away; nothing left to tell it
+        } finally {
+            exchange.close();
+            metrics.record(status, System.nanoTime() - start);
+        }
+    }
+
+    private static Response ok(Body body) {
+        return new Response(200, body);
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, json -> json.beginObject().field("error", message).endObject());
+    }
+
+    private Response search(HttpExchange exchange, Map<String, String> query, String pnr, String channel) throws SQLException {
+        ReservationService.SearchResponse result = ReservationService.search(new ReservationService.SearchRequest(
+                query.get("source"), query.get("destination"), date(query.get("date"), "date"),
+                query.getOrDefault("class", "Economy"), Boolean.parseBoolean(query.get("connections"))));
+
+        return ok(json -> {
+            json.beginObject().name("direct").beginArray();
+            for (ReservationService.FlightOffer offer : result.direct()) {
+                json.beginObject();
+                flight(json, offer.flight());
+                json.field("seatClass", offer.seatClass())
+                        .field("availableSeats", offer.availableSeats())
+                        .field("fare", offer.fare())
+                        .endObject();
+            }
+            json.endArray().name("connecting").beginArray();
+            for (ReservationService.ConnectionOffer offer : result.connecting()) {
+                Itinerary itinerary = offer.itinerary();
+                json.beginObject()
+                        .field("stops", itinerary.getStops())
+                        .field("departure", Itinerary.formatMinute(itinerary.getDepartureMinute()))
+                        .field("arrival", Itinerary.formatMinute(itinerary.getArrivalMinute()))
+                        .field("arrivalDayOffset", itinerary.getArrivalDayOffset())
+                        .field("totalMinutes", itinerary.getTotalMinutes())
+                        .field("totalFare", offer.totalFare())
+                        .name("legs").beginArray();
+                for (Flight leg : itinerary.getLegs()) {
+                    json.beginObject();
+                    flight(json, leg);
+                    json.endObject();
+                }
+                json.endArray().endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    private Response quote(HttpExchange exchange, Map<String, String> query, String pnr, String channel) throws SQLException {
+        ReservationService.FareQuote quote = ReservationService.quote(new ReservationService.QuoteRequest(
+                query.get("flight"), query.getOrDefault("class", "Economy"), query.get("concession")));
+        return ok(json -> fareQuote(json.beginObject(), quote).endObject());
+    }
+
+    private Response book(HttpExchange exchange, Map<String, String> query, String pnr, String channel) throws Exception {
+        Map<String, String> body = Json.readObject(exchange.getRequestBody());
+        ReservationService.BookingConfirmation booking = ReservationService.book(new ReservationService.BookingRequest(
+                body.get("pnr"),
+                date(body.get("travelDate"), "travelDate"),
+                body.get("passengerName"),
+                body.get("fatherName"),
+                body.get("gender"),
+                body.get("dateOfBirth") == null ? null : date(body.get("dateOfBirth"), "dateOfBirth"),
+                body.get("address"),
+                body.get("phone"),
+                body.get("profession"),
+                body.get("concession"),
+                body.get("flightCode"),
+                body.getOrDefault("seatClass", "Economy"),
+                body.get("seatPreference")));
+
+        exchange.getResponseHeaders().set("Location", BOOKINGS + "/" + booking.pnr());
+        return new Response(201, json -> {
+            json.beginObject()
+                    .field("pnr", booking.pnr())
+                    .field("flightCode", booking.flightCode())
+                    .field("seatClass", booking.seatClass())
+                    .field("seatNumber", booking.seatNumber())
+                    .field("travelDate", booking.travelDate().toString())
+                    .name("fare");
+            fareQuote(json.beginObject(), booking.fare()).endObject();
+            json.endObject();
+        });
+    }
+
+    private Response lookup(HttpExchange exchange, Map<String, String> query, String pnr, String channel) throws SQLException {
+        ReservationDetails reservation = ReservationService.findBooking(pnr);
+        RefundPolicy.Quote refund = "Cancelled".equals(reservation.status())
+                ? null : ReservationService.quoteRefund(reservation);
+
+        return ok(json -> {
+            reservation(json.beginObject(), reservation);
+            if (refund != null) {
+                json.name("refundIfCancelledToday");
+                refund(json.beginObject(), refund).endObject();
+            }
+            json.endObject();
+        });
+    }
+
+    private Response cancel(HttpExchange exchange, Map<String, String> query, String pnr, String channel) throws SQLException {
+        String reason = query.getOrDefault("reason", "Customer Request");
+        ReservationService.RefundQuote cancelled = ReservationService.cancel(
+                new ReservationService.CancellationRequest(pnr, reason + " (API: " + channel + ")", API_USER_ID));
+
+        return ok(json -> {
+            json.beginObject()
+                    .field("pnr", cancelled.reservation().pnr())
+                    .field("status", "Cancelled")
+                    .name("refund");
+            refund(json.beginObject(), cancelled.quote()).endObject();
+            json.endObject();
+        });
+    }
+
+    private Response metrics(HttpExchange exchange, Map<String, String> query, String pnr, String channel) {
+        ConnectionPool.PoolStats pool = DatabaseConnection.getPoolStats();
+        return ok(json -> {
+            json.beginObject()
+                    .field("inFlight", inFlight.get())
+                    .field("queued", workers.getQueue().size())
+                    .field("workers", workers.getPoolSize())
+                    .field("rejected", rejected.sum())
+                    .name("routes").beginArray();
+            for (Route route : routes) {
+                route.metrics().write(json);
+            }
+            unmatched.write(json);
+            json.endArray()
+                    .field("connectionPool", pool == null ? null : pool.toString())
+                    .endObject();
+        });
+    }
+
+    private static void flight(Json.Writer json, Flight flight) throws IOException {
+        json.field("flightCode", flight.getFlightCode())
+                .field("flightName", flight.getFlightName())
+                .field("source", flight.getSourcePlace())
+                .field("destination", flight.getDestinationPlace())
+                .field("departureTime", flight.getDepartureTime())
+                .field("arrivalTime", flight.getArrivalTime());
+    }
+
+    private static Json.Writer fareQuote(Json.Writer json, ReservationService.FareQuote quote) throws IOException {
+        return json.field("flightCode", quote.flightCode())
+                .field("seatClass", quote.seatClass())
+                .field("concession", quote.concession())
+                .field("baseFare", quote.baseFare())
+                .field("discountRate", quote.discountRate())
+                .field("discount", quote.discount())
+                .field("finalFare", quote.finalFare());
+    }
+
+    private static Json.Writer reservation(Json.Writer json, ReservationDetails reservation) throws IOException {
+        return json.field("pnr", reservation.pnr())
+                .field("status", reservation.status())
+                .field("passenger", reservation.passenger())
+                .field("flightCode", reservation.flightCode())
+                .field("flightName", reservation.flightName())
+                .field("source", reservation.sourcePlace())
+                .field("destination", reservation.destinationPlace())
+                .field("travelDate", reservation.travelDate())
+                .field("departureTime", reservation.departureTime())
+                .field("arrivalTime", reservation.arrivalTime())
+                .field("seatClass", reservation.seatClass())
+                .field("seatNumber", reservation.seatNumber())
+                .field("finalFare", reservation.finalFare())
+                .field("createdAt", reservation.createdAt());
+    }
+
+    private static Json.Writer refund(Json.Writer json, RefundPolicy.Quote quote) throws IOException {
+        return json.field("fare", quote.fare())
+                .field("charge", quote.charge())
+                .field("refund", quote.refund());
+    }
+
+    // Returns the channel whose key the request carries, or null. Keys are compared in constant time.
+    private String authenticate(HttpExchange exchange) {
+        String key = exchange.getRequestHeaders().getFirst(API_KEY_HEADER);
+        if (key == null) {
+            return null;
+        }
+        byte[] presented = key.getBytes(StandardCharsets.UTF_8);
+        String match = null;
+        for (Map.Entry<String, byte[]> entry : channelKeys.entrySet()) {
+            if (MessageDigest.isEqual(presented, entry.getValue())) {
+                match = entry.getKey();
+            }
+        }
+        return match;
+    }
+
+    private static Map<String, byte[]> channelKeys(String config) {
+        Map<String, byte[]> keys = new HashMap<>();
+        for (String entry : config.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            if (eq <= 0 || eq == entry.length() - 1) {
+                throw new IllegalArgumentException("airline.api.keys entries must look like channel=key");
+            }
+            keys.put(entry.substring(0, eq).trim(), entry.substring(eq + 1).trim().getBytes(StandardCharsets.UTF_8));
+        }
+        return keys;
+    }
+
+    private static LocalDate date(String value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be a date like 2025-01-31");
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
@@ -1,39 +1,22 @@
 package com.example.airline;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public class AuthService {
     private static User currentUser = null;
 
     public static boolean login(String username, String password) {
-        String sql = "SELECT user_id, username, password, role, full_name, email, is_active FROM users WHERE username = ? AND is_active = 1";
+        try {
+            User user = UserRepository.findByUsername(username);
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            // In real application, use proper password hashing!
+            // For demo purposes, we're using plain text comparison
+            if (user != null && user.isActive() && user.getPassword().equals(password)) {
+                user.setPassword(null);
+                currentUser = user;
 
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                String storedPassword = rs.getString("password");
-
-                // In real application, use proper password hashing!
-                // For demo purposes, we're using plain text comparison
-                if (storedPassword.equals(password)) {
-                    currentUser = new User();
-                    currentUser.setUserId(rs.getInt("user_id"));
-                    currentUser.setUsername(rs.getString("username"));
-                    currentUser.setRole(rs.getString("role"));
-                    currentUser.setFullName(rs.getString("full_name"));
-                    currentUser.setEmail(rs.getString("email"));
-                    currentUser.setActive(rs.getBoolean("is_active"));
-
-                    System.out.println("Login successful: " + currentUser.getFullName() + " (" + currentUser.getRole() + ")");
-                    return true;
-                }
+                System.out.println("Login successful: " + currentUser.getFullName() + " (" + currentUser.getRole() + ")");
+                return true;
             }
         } catch (SQLException e) {
             System.err.println("Login error: " + e.getMessage());
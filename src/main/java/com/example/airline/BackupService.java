@@ -0,0 +1,203 @@
+package com.example.airline;
+
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.DB;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Online backups through SQLite's backup API. The copy advances a fixed number of pages per step
+ * from a read snapshot pinned on the source connection, so in WAL mode writers keep committing
+ * while it runs and their commits never force the copy to restart. Every backup is integrity
+ * checked before it is kept, optionally gzipped, and only the newest few are retained. Restore
+ * checks the file first, copies it over the live database the same way, then migrates and reloads
+ * the in-memory caches and settings.
+ */
+public class BackupService {
+
+    public static final Path BACKUP_DIR = Paths.get(System.getProperty("airline.backup.dir", "backups"));
+
+    private static final int RETAIN = Integer.getInteger("airline.backup.retain", 7);
+    private static final int PAGES_PER_STEP = Integer.getInteger("airline.backup.pagesPerStep", 1024);
+    private static final int BUSY_SLEEP_MS = 100;
+    private static final int BUSY_RETRIES = 50;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String PREFIX = "airline_backup_";
+    private static final DateTimeFormatter STAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    public record BackupResult(Path file, long bytes, int schemaVersion) {}
+
+    private BackupService() {}
+
+    /**
+     * Backs up the live database into backups/. The progress observer receives (remaining, total)
+     * page counts after each step.
+     */
+    public static BackupResult backup(boolean compress, DB.ProgressObserver progress) throws SQLException, IOException {
+        Files.createDirectories(BACKUP_DIR);
+        Path target = BACKUP_DIR.resolve(PREFIX + LocalDateTime.now().format(STAMP_FORMAT) + ".db");
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                // Holding a read transaction pins the snapshot for every step of the copy
+                stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master").close();
+                int rc = database(conn).backup("main", target.toString(), progress,
+                        BUSY_SLEEP_MS, BUSY_RETRIES, PAGES_PER_STEP);
+                if (rc != 0) {
+                    throw new SQLException("Backup failed with SQLite result code " + rc);
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+
+        int schemaVersion;
+        try {
+            // The copy inherits WAL mode; a rollback journal keeps it a single self-contained file
+            try (Connection copy = DriverManager.getConnection("jdbc:sqlite:" + target.toAbsolutePath());
+                 Statement stmt = copy.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = DELETE");
+            }
+            schemaVersion = verify(target);
+        } catch (SQLException e) {
+            deleteDatabaseFile(target);
+            throw e;
+        }
+
+        if (compress) {
+            Path compressed = target.resolveSibling(target.getFileName() + ".gz");
+            try (InputStream in = Files.newInputStream(target);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), COPY_BUFFER_SIZE)) {
+                in.transferTo(out);
+            }
+            deleteDatabaseFile(target);
+            target = compressed;
+        }
+
+        rotate();
+        return new BackupResult(target, Files.size(target), schemaVersion);
+    }
+
+    /**
+     * Replaces the live database with a backup. The backup is decompressed if needed and integrity
+     * checked before anything is overwritten.
+     */
+    public static void restore(Path backup, DB.ProgressObserver progress) throws SQLException, IOException {
+        Path source = backup;
+        boolean compressed = backup.getFileName().toString().endsWith(".gz");
+        if (compressed) {
+            source = Files.createTempFile(BACKUP_DIR, "restore_", ".db");
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(backup), COPY_BUFFER_SIZE)) {
+                Files.copy(in, source, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        try {
+            verify(source);
+
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                int rc = database(conn).restore("main", source.toString(), progress,
+                        BUSY_SLEEP_MS, BUSY_RETRIES, PAGES_PER_STEP);
+                if (rc != 0) {
+                    throw new SQLException("Restore failed with SQLite result code " + rc);
+                }
+                checkIntegrity(conn, "restored database");
+                SchemaMigrations.migrate(conn);
+            }
+        } finally {
+            if (compressed) {
+                deleteDatabaseFile(source);
+            }
+        }
+
+        FareService.invalidate();
+        SeatAllocator.clear();
+        SettingsStore.reload();
+        FlightInventoryCache.reload();
+        SeatInventory.reload();
+        System.out.println("Database restored from " + backup);
+    }
+
+    // Newest first
+    public static List<Path> listBackups() throws IOException {
+        if (!Files.isDirectory(BACKUP_DIR)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(BACKUP_DIR)) {
+            return files.filter(BackupService::isBackup)
+                    .sorted(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Opens the file on its own connection and runs quick_check. Returns the schema version it records.
+     */
+    public static int verify(Path file) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath())) {
+            checkIntegrity(conn, file.getFileName().toString());
+            // Copies taken before schema migrations existed have no schema_version table
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(
+                         "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'schema_version'")) {
+                return rs.next() ? SchemaMigrations.currentVersion(conn) : 0;
+            }
+        }
+    }
+
+    private static void checkIntegrity(Connection conn, String name) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA quick_check")) {
+            String result = rs.next() ? rs.getString(1) : "no result";
+            if (!"ok".equalsIgnoreCase(result)) {
+                throw new SQLException("Integrity check failed for " + name + ": " + result);
+            }
+        }
+    }
+
+    private static void rotate() throws IOException {
+        List<Path> backups = listBackups();
+        for (Path old : backups.subList(Math.min(RETAIN, backups.size()), backups.size())) {
+            Files.deleteIfExists(old);
+            System.out.println("Removed old backup " + old.getFileName());
+        }
+    }
+
+    // Opening a WAL-mode copy can leave -wal and -shm files next to it
+    private static void deleteDatabaseFile(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-wal"));
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-shm"));
+    }
+
+    private static boolean isBackup(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && (name.endsWith(".db") || name.endsWith(".db.gz"));
+    }
+
+    private static DB database(Connection conn) throws SQLException {
+        return conn.unwrap(SQLiteConnection.class).getDatabase();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.airline;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+public class BookingService {
+
+    private static final String INSERT_CUSTOMER_SQL = """
+            INSERT INTO customer_details
+            (pnr_number, t_date, cust_name, father_name, gender, d_o_b, address, tel_no, profession, security, concession)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    /**
+     * Books one seat in a single transaction: reserves a seat on the departure for the customer's
+     * travel date, saves the customer, the reservation and the seat allocation. Returns the allocated
+     * seat number. Throws if that departure is sold out, leaving the database untouched.
+     */
+    public static String book(Customer customer, String flightCode, String seatClass, String seatPreference,
+                              BigDecimal baseFare, BigDecimal discountAmount, BigDecimal finalFare) throws SQLException {
+        Flight flight = FlightInventoryCache.getFlight(flightCode);
+        if (flight == null) {
+            throw new SQLException("Unknown flight " + flightCode);
+        }
+
+        Connection conn = DatabaseConnection.getConnection();
+        if (conn == null) {
+            throw new SQLException("No database connection available");
+        }
+
+        LocalDate travelDate = customer.getTravelDate();
+        String seatNumber = null;
+        try {
+            DatabaseConnection.beginWrite(conn);
+
+            reserveSeat(conn, flightCode, travelDate, seatClass);
+            int custId = insertCustomer(conn, customer);
+            customer.setCustId(custId);
+
+            seatNumber = SeatAllocator.allocate(conn, flight, travelDate, seatClass, seatPreference);
+            ReservationRepository.insert(conn, customer, flightCode, seatClass, seatNumber, seatPreference,
+                    baseFare, discountAmount, finalFare);
+            ReservationRepository.allocateSeat(conn, customer.getPnrNumber(), flightCode, travelDate, seatClass,
+                    seatNumber, SeatAllocator.isWindowSeat(flightCode, travelDate, seatClass, seatNumber));
+
+            conn.commit();
+
+        } catch (SQLException | RuntimeException e) {
+            // setAutoCommit(true) below would commit whatever is still open, so any failure rolls back first
+            conn.rollback();
+            if (seatNumber != null) {
+                SeatAllocator.release(flightCode, travelDate.toString(), seatClass, seatNumber);
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            conn.close();
+        }
+
+        FlightInventoryCache.recordBooking(flightCode, seatClass);
+        SeatInventory.recordBooking(flightCode, travelDate, seatClass);
+        System.out.println("Booking " + customer.getPnrNumber() + " committed with seat " + seatNumber);
+        return seatNumber;
+    }
+
+    private static void reserveSeat(Connection conn, String flightCode, LocalDate travelDate, String seatClass) throws SQLException {
+        SeatInventory.reserve(conn, flightCode, travelDate, seatClass);
+
+        FlightRepository.adjustBookedSeats(conn, flightCode, seatClass, 1);
+    }
+
+    private static int insertCustomer(Connection conn, Customer customer) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_CUSTOMER_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, customer.getPnrNumber());
+            pstmt.setString(2, customer.getTravelDate().toString());
+            pstmt.setString(3, customer.getCustName());
+            pstmt.setString(4, customer.getFatherName());
+            pstmt.setString(5, customer.getGender());
+            pstmt.setString(6, customer.getDateOfBirth() != null ? customer.getDateOfBirth().toString() : null);
+            pstmt.setString(7, customer.getAddress());
+            pstmt.setString(8, customer.getTelNo());
+            pstmt.setString(9, customer.getProfession());
+            pstmt.setString(10, customer.getSecurity());
+            pstmt.setString(11, customer.getConcession());
+
+            if (pstmt.executeUpdate() == 0) {
+                throw new SQLException("Creating customer failed, no rows affected.");
+            }
+
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    return generatedKeys.getInt(1);
+                }
+                throw new SQLException("Creating customer failed, no ID obtained.");
+            }
+        }
+    }
+}
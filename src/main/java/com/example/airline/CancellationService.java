@@ -0,0 +1,161 @@
+package com.example.airline;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cancels bookings, one at a time from the cancellation screens or every booking on a departure,
+ * e.g. when a flight is scrubbed. A departure is cancelled in one transaction: the cancellations
+ * rows go in as JDBC batches, and reservations, seats and seat counters are updated with one
+ * set-based statement each instead of four statements per PNR.
+ */
+public class CancellationService {
+
+    public static final int BATCH_SIZE = 500;
+
+    // Reported after each batch of cancellations rows is written
+    @FunctionalInterface
+    public interface Progress {
+        void update(int done, int total);
+    }
+
+    public record DepartureCancellation(String flightCode, LocalDate travelDate, int economy, int business,
+                                        long refundCents) {
+        public int cancelled() {
+            return economy + business;
+        }
+
+        public BigDecimal refundTotal() {
+            return BigDecimal.valueOf(refundCents, 2);
+        }
+    }
+
+    private static final String CLEAR_INVENTORY_SQL =
+            "UPDATE departure_inventory SET seats_booked = 0 WHERE f_code = ? AND travel_date = ?";
+
+    /**
+     * Cancels one booking: the reservation, its seat, the flight and departure seat counts and the
+     * cancellations row are written in one transaction, then the in-memory inventories are updated.
+     * Throws IllegalStateException, leaving everything untouched, if the booking is already cancelled.
+     */
+    public static void cancelBooking(String pnr, String flightCode, String travelDate, String seatClass,
+                                     String seatNumber, RefundPolicy.Quote quote, String reason,
+                                     int cancelledBy) throws SQLException {
+        Connection conn = DatabaseConnection.getConnection();
+        if (conn == null) {
+            throw new SQLException("No database connection available");
+        }
+
+        try {
+            DatabaseConnection.beginWrite(conn);
+            // A second cancel of the same PNR waits at BEGIN for the first to commit, then changes no rows
+            if (ReservationRepository.cancel(conn, pnr) == 0) {
+                throw new IllegalStateException("Booking " + pnr + " is already cancelled.");
+            }
+            FlightRepository.adjustBookedSeats(conn, flightCode, seatClass, -1);
+            SeatInventory.release(conn, flightCode, travelDate, seatClass);
+            ReservationRepository.insertCancellation(conn, new ReservationRepository.Cancellation(pnr, flightCode,
+                    null, seatClass, quote.fare(), quote.charge(), quote.refund(), reason, cancelledBy));
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            // setAutoCommit(true) below would commit whatever is still open, so any failure rolls back first
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            conn.close();
+        }
+
+        FlightInventoryCache.recordCancellation(flightCode, seatClass);
+        SeatInventory.recordCancellation(flightCode, travelDate, seatClass);
+        SeatAllocator.release(flightCode, travelDate, seatClass, seatNumber);
+    }
+
+    /**
+     * Cancels all live bookings on the departure. With waiveCharges every passenger gets the full
+     * fare back; otherwise each refund is quoted by the current {@link RefundPolicy}. Returns what
+     * was cancelled; nothing is changed if any step fails.
+     */
+    public static DepartureCancellation cancelDeparture(String flightCode, LocalDate travelDate, String reason,
+                                                        int cancelledBy, boolean waiveCharges,
+                                                        Progress progress) throws SQLException {
+        RefundPolicy policy = waiveCharges ? null : RefundPolicy.current();
+        String date = travelDate.toString();
+
+        Connection conn = DatabaseConnection.getConnection();
+        if (conn == null) {
+            throw new SQLException("No database connection available");
+        }
+
+        DepartureCancellation result;
+        try {
+            DatabaseConnection.beginWrite(conn);
+
+            // The write lock is held from BEGIN, so the bookings read next cannot go stale
+            try (PreparedStatement pstmt = conn.prepareStatement(CLEAR_INVENTORY_SQL)) {
+                pstmt.setString(1, flightCode);
+                pstmt.setString(2, date);
+                pstmt.executeUpdate();
+            }
+
+            List<ReservationRepository.DepartureBooking> bookings =
+                    ReservationRepository.findOnDeparture(conn, flightCode, date);
+            int total = bookings.size();
+            progress.update(0, total);
+
+            long[] fares = new long[total];
+            String[] travelDates = new String[total];
+            for (int i = 0; i < total; i++) {
+                BigDecimal fare = bookings.get(i).fare();
+                fares[i] = fare == null ? 0 : RefundPolicy.toCents(fare);
+                travelDates[i] = date;
+            }
+            long[] charges = policy == null ? new long[total] : policy.charges(fares, travelDates, LocalDate.now());
+
+            int economy = 0;
+            long refundCents = 0;
+            List<ReservationRepository.Cancellation> cancellations = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                ReservationRepository.DepartureBooking booking = bookings.get(i);
+                long refund = fares[i] - charges[i];
+                cancellations.add(new ReservationRepository.Cancellation(booking.pnr(), flightCode, booking.custId(),
+                        booking.seatClass(), BigDecimal.valueOf(fares[i], 2), BigDecimal.valueOf(charges[i], 2),
+                        BigDecimal.valueOf(refund, 2), reason, cancelledBy));
+                refundCents += refund;
+                if ("Economy".equals(booking.seatClass())) {
+                    economy++;
+                }
+            }
+            ReservationRepository.insertCancellations(conn, cancellations, BATCH_SIZE, done -> progress.update(done, total));
+
+            ReservationRepository.cancelDeparture(conn, flightCode, date);
+
+            int business = total - economy;
+            FlightRepository.adjustBookedSeats(conn, flightCode, "Economy", -economy);
+            FlightRepository.adjustBookedSeats(conn, flightCode, "Business", -business);
+
+            conn.commit();
+            result = new DepartureCancellation(flightCode, travelDate, economy, business, refundCents);
+
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            conn.close();
+        }
+
+        FlightInventoryCache.recordCancellations(flightCode, "Economy", result.economy());
+        FlightInventoryCache.recordCancellations(flightCode, "Business", result.business());
+        SeatInventory.clearDeparture(flightCode, travelDate);
+        SeatAllocator.clear(flightCode, date);
+        System.out.println("Cancelled departure " + flightCode + " on " + date + ": " + result.cancelled() +
+                " bookings, refunds M" + result.refundTotal());
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.airline;
+
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * Keeps result cards that have scrolled or paged out of view so the next page can rebind them
+ * instead of building a new node tree. Cards are created by the supplier only when the pool is empty.
+ */
+public class CardPool<C extends Node> {
+
+    private final Class<C> type;
+    private final Supplier<C> factory;
+    private final Deque<C> free = new ArrayDeque<>();
+
+    public CardPool(Class<C> type, Supplier<C> factory) {
+        this.type = type;
+        this.factory = factory;
+    }
+
+    public C acquire() {
+        C card = free.poll();
+        return card != null ? card : factory.get();
+    }
+
+    // Detaches every pooled card in the container and returns it to the pool
+    public void releaseAll(Pane container) {
+        for (Node node : container.getChildren()) {
+            if (type.isInstance(node)) {
+                free.push(type.cast(node));
+            }
+        }
+        container.getChildren().removeIf(type::isInstance);
+    }
+
+    public int getFreeCount() {
+        return free.size();
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.airline;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size pool of pre-opened SQLite connections. Callers receive a proxy whose
+ * {@code close()} hands the physical connection back to the pool instead of closing it.
+ * Each connection keeps a {@link StatementCache}, so {@code prepareStatement(sql)} on a lease
+ * reuses the statement prepared by an earlier borrower.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private final String url;
+    private final List<String> initStatements;
+    private final int size;
+    private final long borrowTimeoutMillis;
+    private final long validateAfterIdleMillis;
+    private final int statementCacheSize;
+    private final BlockingQueue<PooledConnection> idle;
+    private final List<PooledConnection> all = new ArrayList<>();
+    private volatile boolean closed = false;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder replacedCount = new LongAdder();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    public ConnectionPool(String url, List<String> initStatements, int size,
+                          long borrowTimeoutMillis, long validateAfterIdleMillis,
+                          int statementCacheSize) throws SQLException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.url = url;
+        this.initStatements = List.copyOf(initStatements);
+        this.size = size;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validateAfterIdleMillis = validateAfterIdleMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.idle = new ArrayBlockingQueue<>(size);
+
+        try {
+            for (int i = 0; i < size; i++) {
+                PooledConnection pooled = new PooledConnection(openPhysical());
+                all.add(pooled);
+                idle.add(pooled);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+        System.out.println("Connection pool opened with " + size + " connections");
+    }
+
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        PooledConnection pooled;
+        try {
+            pooled = idle.poll(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        long waited = System.nanoTime() - start;
+
+        if (pooled == null) {
+            timeoutCount.increment();
+            throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection");
+        }
+
+        borrowCount.increment();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        try {
+            validate(pooled);
+        } catch (SQLException e) {
+            idle.offer(pooled);
+            throw e;
+        }
+        return pooled.lease();
+    }
+
+    private void validate(PooledConnection pooled) throws SQLException {
+        long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.returnedAt);
+        if (idleMillis < validateAfterIdleMillis && !pooled.physical.isClosed()) {
+            return;
+        }
+        if (pooled.physical.isValid(1)) {
+            return;
+        }
+
+        System.err.println("Replacing stale pooled connection");
+        pooled.statements.closeAll();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+        }
+        pooled.attach(openPhysical());
+        replacedCount.increment();
+    }
+
+    private void release(PooledConnection pooled) {
+        Connection physical = pooled.physical;
+        pooled.statements.checkInAll();
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error resetting pooled connection: " + e.getMessage());
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+            }
+        }
+
+        pooled.returnedAt = System.nanoTime();
+        if (closed) {
+            closeQuietly(physical);
+        } else {
+            idle.offer(pooled);
+        }
+    }
+
+    protected Connection openPhysical() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : initStatements) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    public PoolStats getStats() {
+        long borrows = borrowCount.sum();
+        return new PoolStats(
+                size,
+                idle.size(),
+                size - idle.size(),
+                borrows,
+                timeoutCount.sum(),
+                replacedCount.sum(),
+                borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get() / borrows),
+                TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()),
+                statementHits.sum(),
+                statementMisses.sum(),
+                statementEvictions.sum()
+        );
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (PooledConnection pooled : all) {
+            pooled.statements.closeAll();
+            closeQuietly(pooled.physical);
+        }
+        idle.clear();
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    public record PoolStats(int size, int idle, int active, long borrows, long timeouts,
+                            long replaced, long averageWaitMicros, long maxWaitMicros,
+                            long statementHits, long statementMisses, long statementEvictions) {
+
+        public double statementHitRate() {
+            long lookups = statementHits + statementMisses;
+            return lookups == 0 ? 0 : (double) statementHits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStats{size=" + size + ", idle=" + idle + ", active=" + active +
+                    ", borrows=" + borrows + ", timeouts=" + timeouts + ", replaced=" + replaced +
+                    ", avgWait=" + averageWaitMicros + "us, maxWait=" + maxWaitMicros + "us" +
+                    ", statementHits=" + statementHits + ", statementMisses=" + statementMisses +
+                    ", statementEvictions=" + statementEvictions + "}";
+        }
+    }
+
+    private final class PooledConnection {
+        private Connection physical;
+        private StatementCache statements;
+        private long returnedAt = System.nanoTime();
+
+        private PooledConnection(Connection physical) {
+            attach(physical);
+        }
+
+        private void attach(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize,
+                    statementHits, statementMisses, statementEvictions);
+        }
+
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease(this));
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private PooledConnection pooled;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (pooled != null) {
+                        PooledConnection returning = pooled;
+                        pooled = null;
+                        release(returning);
+                    }
+                    return null;
+                case "isClosed":
+                    return pooled == null || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + (pooled == null ? "returned" : pooled.physical) + "]";
+                default:
+                    break;
+            }
+
+            if (pooled == null) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                return pooled.statements.prepare((String) args[0], (Connection) proxy);
+            }
+            try {
+                Object result = method.invoke(pooled.physical, args);
+                // Other prepareStatement forms, e.g. with RETURN_GENERATED_KEYS, are not cached
+                if (result instanceof PreparedStatement statement) {
+                    return StatementCache.uncached(statement, (Connection) proxy);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.airline;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Connecting-flight search over the daily schedule in {@link FlightInventoryCache}.
+ *
+ * <p>Each query runs round-based earliest-arrival scans (one round per leg, as in RAPTOR) over a
+ * per-city departure table. Every scan starts just after the previous itinerary's first departure,
+ * which yields the set of non-dominated itineraries leaving on the travel date. Seats are checked
+ * against the departure each leg actually flies, so an overnight connection uses the next day's inventory.
+ *
+ * <p>Under a layover limit an earlier arrival at a hub can miss an onward flight that a later arrival
+ * still makes, so the scans keep one label per city and arrival minute rather than only the earliest.
+ */
+public class ConnectionSearchService {
+
+    public static final int DEFAULT_MAX_LEGS = 3;
+    public static final int DEFAULT_MIN_CONNECTION_MINUTES = 45;
+    public static final int DEFAULT_MAX_LAYOVER_MINUTES = 720;
+    public static final int DEFAULT_MAX_RESULTS = 10;
+
+    private static final int MINUTES_PER_DAY = 1440;
+
+    private static volatile Network network = null;
+
+    // Whether the leg's flight has a seat left in the class on the given departure date
+    @FunctionalInterface
+    interface SeatCheck {
+        boolean hasSeat(Flight flight, LocalDate departureDate) throws SQLException;
+    }
+
+    public static List<Itinerary> search(String source, String destination, LocalDate travelDate,
+                                         String seatClass) throws SQLException {
+        return search(source, destination, travelDate, seatClass, DEFAULT_MAX_LEGS, DEFAULT_MIN_CONNECTION_MINUTES,
+                DEFAULT_MAX_LAYOVER_MINUTES, DEFAULT_MAX_RESULTS);
+    }
+
+    public static List<Itinerary> search(String source, String destination, LocalDate travelDate,
+                                         String seatClass, int maxLegs,
+                                         int minConnectionMinutes, int maxLayoverMinutes, int maxResults) throws SQLException {
+        return search(network(), source, destination, travelDate, maxLegs, minConnectionMinutes, maxLayoverMinutes,
+                maxResults, (flight, date) -> SeatInventory.availableSeats(flight, date, seatClass) > 0);
+    }
+
+    // Searches a fixed schedule with the given seat check, without the inventory cache
+    static List<Itinerary> search(List<Flight> flights, String source, String destination, LocalDate travelDate,
+                                  int maxLegs, int minConnectionMinutes, int maxLayoverMinutes, int maxResults,
+                                  SeatCheck seats) throws SQLException {
+        return search(Network.build(flights, 0), source, destination, travelDate, maxLegs, minConnectionMinutes,
+                maxLayoverMinutes, maxResults, seats);
+    }
+
+    private static List<Itinerary> search(Network current, String source, String destination, LocalDate travelDate,
+                                          int maxLegs, int minConnectionMinutes, int maxLayoverMinutes, int maxResults,
+                                          SeatCheck seats) throws SQLException {
+        List<Itinerary> results = new ArrayList<>();
+        if (source.equals(destination)) {
+            return results;
+        }
+
+        int earliestDeparture = 0;
+        while (earliestDeparture < MINUTES_PER_DAY && results.size() < maxResults) {
+            Itinerary best = earliestArrival(current, source, destination, travelDate, earliestDeparture,
+                    maxLegs, minConnectionMinutes, maxLayoverMinutes, seats);
+            if (best == null) {
+                break;
+            }
+
+            // A later departure that arrives no later dominates the earlier options
+            while (!results.isEmpty() && results.get(results.size() - 1).getArrivalMinute() >= best.getArrivalMinute()) {
+                results.remove(results.size() - 1);
+            }
+            results.add(best);
+            earliestDeparture = best.getDepartureMinute() + 1;
+        }
+        return results;
+    }
+
+    private static Itinerary earliestArrival(Network net, String source, String destination, LocalDate travelDate,
+                                             int earliestDeparture, int maxLegs, int minConnectionMinutes,
+                                             int maxLayoverMinutes, SeatCheck seats) throws SQLException {
+        // Two labels at the same city and minute face the same onward choices, so the first one found
+        // (in the earliest round, with the most legs left) is kept. Only when the layover window spans
+        // a whole day can every onward flight be caught from any arrival, and then the earliest arrival
+        // at a city dominates all later ones.
+        boolean earliestDominates = maxLayoverMinutes - minConnectionMinutes >= MINUTES_PER_DAY;
+        Map<String, Integer> bestArrival = new HashMap<>();
+        Map<String, Set<Integer>> reached = new HashMap<>();
+        List<Label> frontier = new ArrayList<>();
+        frontier.add(new Label(source, earliestDeparture, null, 0, null));
+        Label target = null;
+
+        for (int round = 1; round <= maxLegs && !frontier.isEmpty(); round++) {
+            List<Label> next = new ArrayList<>();
+
+            for (Label from : frontier) {
+                Leg[] departures = net.departures.get(from.city);
+                if (departures == null) {
+                    continue;
+                }
+
+                boolean firstLeg = from.previous == null;
+                int ready = firstLeg ? from.arrival : from.arrival + minConnectionMinutes;
+
+                for (Leg leg : departures) {
+                    int departure;
+                    if (firstLeg) {
+                        departure = leg.departure;
+                        if (departure < ready) {
+                            continue;
+                        }
+                    } else {
+                        departure = nextDeparture(leg.departure, ready);
+                        if (departure - from.arrival > maxLayoverMinutes) {
+                            continue;
+                        }
+                    }
+
+                    int arrival = departure + leg.duration;
+                    int targetArrival = target == null ? Integer.MAX_VALUE : target.arrival;
+                    if (arrival >= targetArrival || leg.destination.equals(source)) {
+                        continue;
+                    }
+                    boolean isTarget = leg.destination.equals(destination);
+                    if (!isTarget && (earliestDominates
+                            ? arrival >= bestArrival.getOrDefault(leg.destination, Integer.MAX_VALUE)
+                            : reached.getOrDefault(leg.destination, Set.of()).contains(arrival))) {
+                        continue;
+                    }
+                    LocalDate legDate = travelDate.plusDays(departure / MINUTES_PER_DAY);
+                    if (!leg.flight.isActive() || !seats.hasSeat(leg.flight, legDate)) {
+                        continue;
+                    }
+
+                    Label label = new Label(leg.destination, arrival, leg.flight, departure, from);
+                    if (isTarget) {
+                        target = label;
+                    } else {
+                        bestArrival.merge(leg.destination, arrival, Math::min);
+                        reached.computeIfAbsent(leg.destination, key -> new HashSet<>()).add(arrival);
+                        next.add(label);
+                    }
+                }
+            }
+            frontier = next;
+        }
+
+        return target == null ? null : toItinerary(target);
+    }
+
+    private static int nextDeparture(int scheduledMinute, int ready) {
+        if (scheduledMinute >= ready) {
+            return scheduledMinute;
+        }
+        int days = (ready - scheduledMinute + MINUTES_PER_DAY - 1) / MINUTES_PER_DAY;
+        return scheduledMinute + days * MINUTES_PER_DAY;
+    }
+
+    private static Itinerary toItinerary(Label target) {
+        Deque<Label> path = new ArrayDeque<>();
+        for (Label label = target; label.previous != null; label = label.previous) {
+            path.addFirst(label);
+        }
+
+        List<Flight> legs = new ArrayList<>(path.size());
+        List<Integer> departures = new ArrayList<>(path.size());
+        for (Label label : path) {
+            legs.add(label.flight);
+            departures.add(label.departure);
+        }
+        return new Itinerary(legs, departures, departures.get(0), target.arrival);
+    }
+
+    private static Network network() throws SQLException {
+        Network current = network;
+        long version = FlightInventoryCache.getVersion();
+        if (current == null || current.version != version) {
+            synchronized (ConnectionSearchService.class) {
+                current = network;
+                version = FlightInventoryCache.getVersion();
+                if (current == null || current.version != version) {
+                    List<Flight> flights = FlightInventoryCache.getActiveFlights();
+                    current = Network.build(flights, FlightInventoryCache.getVersion());
+                    network = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    static int parseMinute(String time) {
+        if (time == null) {
+            return -1;
+        }
+        String[] parts = time.trim().split(":");
+        if (parts.length < 2) {
+            return -1;
+        }
+        try {
+            int hours = Integer.parseInt(parts[0]);
+            int minutes = Integer.parseInt(parts[1]);
+            if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+                return -1;
+            }
+            return hours * 60 + minutes;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Label(String city, int arrival, Flight flight, int departure, Label previous) {}
+
+    private record Leg(Flight flight, String destination, int departure, int duration) {}
+
+    private record Network(Map<String, Leg[]> departures, long version) {
+        static Network build(List<Flight> flights, long version) {
+            Map<String, List<Leg>> bySource = new HashMap<>();
+            for (Flight flight : flights) {
+                int departure = parseMinute(flight.getDepartureTime());
+                int arrival = parseMinute(flight.getArrivalTime());
+                if (departure < 0 || arrival < 0) {
+                    continue;
+                }
+                // Arrival earlier than departure means the flight lands the next day
+                int duration = arrival >= departure ? arrival - departure : arrival + MINUTES_PER_DAY - departure;
+                bySource.computeIfAbsent(flight.getSourcePlace(), key -> new ArrayList<>())
+                        .add(new Leg(flight, flight.getDestinationPlace(), departure, duration));
+            }
+
+            Map<String, Leg[]> departures = new HashMap<>();
+            for (Map.Entry<String, List<Leg>> entry : bySource.entrySet()) {
+                List<Leg> legs = entry.getValue();
+                legs.sort((a, b) -> Integer.compare(a.departure, b.departure));
+                departures.put(entry.getKey(), legs.toArray(new Leg[0]));
+            }
+            return new Network(departures, version);
+        }
+    }
+}
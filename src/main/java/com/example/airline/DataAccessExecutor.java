@@ -0,0 +1,123 @@
+package com.example.airline;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs database work for the controllers off the JavaFX Application Thread. Work is wrapped in a
+ * {@link Task} so callers can cancel it; results and errors are handed back on the FX thread.
+ * The pool has as many threads as the connection pool has connections, since every task holds one.
+ */
+public final class DataAccessExecutor {
+
+    public static final int DEFAULT_BATCH_SIZE = 200;
+
+    private static final int THREADS = Integer.getInteger("airline.db.poolSize", 4);
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final ExecutorService executor = new ThreadPoolExecutor(
+            THREADS, THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "data-access-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Source of rows for {@link #stream}. Implementations pass each row to the sink as it is read.
+     */
+    @FunctionalInterface
+    public interface RowSource<T> {
+        void read(Consumer<T> sink) throws Exception;
+    }
+
+    private DataAccessExecutor() {}
+
+    public static <T> Task<T> submit(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(event -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(event -> onFailure.accept(task.getException()));
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Reads rows in the background and publishes them to the FX thread in batches, so a large
+     * result fills the view progressively instead of in one long pause. Cancelling the task stops
+     * the read at the next row and drops batches not yet delivered. onComplete receives the row count.
+     */
+    public static <T> Task<Integer> stream(RowSource<T> source, int batchSize, Consumer<List<T>> onBatch,
+                                           Consumer<Integer> onComplete, Consumer<Throwable> onFailure) {
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                List<T> batch = new ArrayList<>(batchSize);
+                int[] count = {0};
+
+                source.read(row -> {
+                    if (isCancelled()) {
+                        throw new CancellationException();
+                    }
+                    batch.add(row);
+                    count[0]++;
+                    if (batch.size() >= batchSize) {
+                        publish(new ArrayList<>(batch));
+                        batch.clear();
+                    }
+                });
+
+                if (!batch.isEmpty()) {
+                    publish(batch);
+                }
+                return count[0];
+            }
+
+            private void publish(List<T> rows) {
+                Platform.runLater(() -> {
+                    if (!isCancelled()) {
+                        onBatch.accept(rows);
+                    }
+                });
+            }
+        };
+        // Succeeded is posted after the last batch, so onComplete sees every row
+        task.setOnSucceeded(event -> onComplete.accept(task.getValue()));
+        task.setOnFailed(event -> onFailure.accept(task.getException()));
+        executor.execute(task);
+        return task;
+    }
+
+    // For callers that build their own Task, e.g. to report progress
+    public static void execute(Task<?> task) {
+        executor.execute(task);
+    }
+
+    public static void cancel(Task<?> task) {
+        if (task != null && !task.isDone()) {
+            task.cancel();
+        }
+    }
+
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+}
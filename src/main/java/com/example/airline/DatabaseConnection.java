@@ -1,38 +1,138 @@
 package com.example.airline;
 
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteConnectionConfig;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:sqlite:airline_reservation.db";
-    private static Connection connection = null;
-    private static boolean isInitialized = false;
+    private static final String URL = System.getProperty("airline.db.url", "jdbc:sqlite:airline_reservation.db");
+    private static final int POOL_SIZE = Integer.getInteger("airline.db.poolSize", 4);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("airline.db.borrowTimeoutMs", 5000);
+    private static final long VALIDATE_AFTER_IDLE_MS = Long.getLong("airline.db.validateAfterIdleMs", 30000);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("airline.db.statementCacheSize", 64);
+
+    private static final String JOURNAL_MODE = System.getProperty("airline.db.journalMode", "WAL");
+    private static final String SYNCHRONOUS = System.getProperty("airline.db.synchronous", "NORMAL");
+    private static final int CACHE_SIZE_KB = Integer.getInteger("airline.db.cacheSizeKb", 16384);
+    private static final long MMAP_SIZE = Long.getLong("airline.db.mmapSize", 268435456L);
+    private static final String TEMP_STORE = System.getProperty("airline.db.tempStore", "MEMORY");
+    private static final int BUSY_TIMEOUT_MS = Integer.getInteger("airline.db.busyTimeoutMs", 5000);
+    private static final long CHECKPOINT_INTERVAL_SEC = Long.getLong("airline.db.checkpointIntervalSec", 60);
+
+    private static volatile ConnectionPool pool = null;
+    private static ScheduledExecutorService checkpointScheduler = null;
 
-    public static synchronized Connection getConnection() {
+    public static Connection getConnection() {
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(URL);
-                System.out.println("Connected to database successfully!");
+            return getPool().borrow();
+        } catch (SQLException e) {
+            System.err.println("❌ Error connecting to SQLite database: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
 
-                if (!isInitialized) {
-                    initializeDatabase();
-                    isInitialized = true;
-                }
+    private static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(URL, connectionInitStatements(), POOL_SIZE,
+                            BORROW_TIMEOUT_MS, VALIDATE_AFTER_IDLE_MS, STATEMENT_CACHE_SIZE);
+                    System.out.println("Connected to database successfully!");
 
-                try (Statement stmt = connection.createStatement()) {
-                    stmt.execute("PRAGMA foreign_keys = ON");
+                    try (Connection conn = current.borrow()) {
+                        initializeDatabase(conn);
+                    }
+                    pool = current;
+                    startCheckpointTask();
                 }
             }
+        }
+        return current;
+    }
+
+    private static List<String> connectionInitStatements() {
+        // busy_timeout goes first so the journal_mode switch itself waits on a locked database
+        return List.of(
+                "PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS,
+                "PRAGMA journal_mode = " + JOURNAL_MODE,
+                "PRAGMA synchronous = " + SYNCHRONOUS,
+                "PRAGMA cache_size = -" + CACHE_SIZE_KB,
+                "PRAGMA mmap_size = " + MMAP_SIZE,
+                "PRAGMA temp_store = " + TEMP_STORE,
+                "PRAGMA foreign_keys = ON"
+        );
+    }
+
+    private static void startCheckpointTask() {
+        if (!"WAL".equalsIgnoreCase(JOURNAL_MODE) || CHECKPOINT_INTERVAL_SEC <= 0) {
+            return;
+        }
+
+        checkpointScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointScheduler.scheduleWithFixedDelay(() -> checkpoint("PASSIVE"),
+                CHECKPOINT_INTERVAL_SEC, CHECKPOINT_INTERVAL_SEC, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Starts a transaction that takes SQLite's write lock at BEGIN. A deferred transaction whose first
+     * write has to read first fails at once with SQLITE_BUSY if another writer commits in between, as
+     * its snapshot is then stale; an immediate one waits out the busy timeout instead.
+     */
+    public static void beginWrite(Connection conn) throws SQLException {
+        SQLiteConnectionConfig config = conn.unwrap(SQLiteConnection.class).getConnectionConfig();
+        config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        try {
+            conn.setAutoCommit(false);
+        } finally {
+            // Transactions the driver opens after commit, and other borrowers, stay deferred
+            config.setTransactionMode(SQLiteConfig.TransactionMode.DEFERRED);
+        }
+    }
+
+    public static void checkpoint(String mode) {
+        try (Connection conn = getPool().borrow();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+
+            if (rs.next() && rs.getInt(1) != 0) {
+                System.err.println("WAL checkpoint (" + mode + ") was blocked by active readers or writers");
+            }
         } catch (SQLException e) {
-            System.err.println("❌ Error connecting to SQLite database: " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("Error running WAL checkpoint: " + e.getMessage());
         }
-        return connection;
+    }
+
+    public static ConnectionPool.PoolStats getPoolStats() {
+        ConnectionPool current = pool;
+        return current == null ? null : current.getStats();
     }
 
     public static synchronized void initializeDatabase() {
+        try (Connection conn = getConnection()) {
+            initializeDatabase(conn);
+        } catch (SQLException e) {
+            System.err.println("Error initializing database: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static void initializeDatabase(Connection conn) {
         System.out.println("Initializing database...");
 
         String[] createTables = {
@@ -154,13 +254,16 @@ public class DatabaseConnection {
             """
         };
 
-        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
+        try (Statement stmt = conn.createStatement()) {
             for (String sql : createTables) {
                 stmt.execute(sql);
             }
             System.out.println("Database tables initialized successfully!");
 
-            insertSampleData();
+            SchemaMigrations.migrate(conn);
+            System.out.println("Database schema at version " + SchemaMigrations.currentVersion(conn));
+
+            insertSampleData(conn);
 
         } catch (SQLException e) {
             System.err.println("Error initializing database: " + e.getMessage());
@@ -168,7 +271,7 @@ public class DatabaseConnection {
         }
     }
 
-    private static void insertSampleData() {
+    private static void insertSampleData(Connection conn) {
         String[] sampleData = {
                 """
             INSERT OR IGNORE INTO users (username, password, role, full_name, email) VALUES
@@ -209,7 +312,7 @@ public class DatabaseConnection {
             """
         };
 
-        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
+        try (Statement stmt = conn.createStatement()) {
             for (String sql : sampleData) {
                 stmt.execute(sql);
             }
@@ -221,15 +324,18 @@ public class DatabaseConnection {
     }
 
     public static synchronized void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
-                connection = null;
-                isInitialized = false;
+        if (checkpointScheduler != null) {
+            checkpointScheduler.shutdownNow();
+            checkpointScheduler = null;
+        }
+        if (pool != null) {
+            if ("WAL".equalsIgnoreCase(JOURNAL_MODE)) {
+                checkpoint("TRUNCATE");
             }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
+            System.out.println("Closing database connections: " + pool.getStats());
+            pool.close();
+            pool = null;
+            System.out.println("Database connection closed.");
         }
     }
 
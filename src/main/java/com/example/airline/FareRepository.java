@@ -0,0 +1,53 @@
+package com.example.airline;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL for the fare table. Reads go through {@link FareService}, which keeps the whole table in memory.
+ */
+public final class FareRepository {
+
+    private static final String FIND_ALL_SQL = "SELECT f_code, class_type, base_fare FROM fare ORDER BY fare_id";
+
+    private static final String INSERT_SQL =
+            "INSERT OR IGNORE INTO fare (route_code, f_code, class_type, base_fare) VALUES (?, ?, ?, ?)";
+
+    public record Fare(String flightCode, String seatClass, double baseFare) {}
+
+    private FareRepository() {}
+
+    public static List<Fare> findAll() throws SQLException {
+        List<Fare> fares = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FIND_ALL_SQL)) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    fares.add(new Fare(rs.getString(1), rs.getString(2), rs.getDouble(3)));
+                }
+            }
+        }
+        return fares;
+    }
+
+    // Both classes are written under the flight's economy route code, as flights have always been set up
+    public static void insertForFlight(String flightCode, double economyFare, double businessFare) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            insert(pstmt, flightCode, "Economy", economyFare);
+            insert(pstmt, flightCode, "Business", businessFare);
+        }
+    }
+
+    private static void insert(PreparedStatement pstmt, String flightCode, String seatClass, double fare) throws SQLException {
+        pstmt.setString(1, flightCode + "-ECO");
+        pstmt.setString(2, flightCode);
+        pstmt.setString(3, seatClass);
+        pstmt.setDouble(4, fare);
+        pstmt.executeUpdate();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.airline;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base fares held in memory, keyed by flight code and class. The whole fare table is read in one
+ * query on first use and re-read after {@link #invalidate()}, so a page of results costs no round trips.
+ */
+public class FareService {
+
+    private static volatile Map<FareKey, Double> fares = null;
+    // Bumped by every invalidate, so a load that overlapped one is not kept
+    private static final AtomicLong version = new AtomicLong();
+
+    public static Double getFare(String flightCode, String seatClass) throws SQLException {
+        return fares().get(new FareKey(flightCode, seatClass));
+    }
+
+    public static Map<String, Double> getFares(Collection<Flight> flights, String seatClass) throws SQLException {
+        Map<FareKey, Double> table = fares();
+        Map<String, Double> result = new HashMap<>();
+        for (Flight flight : flights) {
+            Double fare = table.get(new FareKey(flight.getFlightCode(), seatClass));
+            if (fare != null) {
+                result.put(flight.getFlightCode(), fare);
+            }
+        }
+        return result;
+    }
+
+    public static void invalidate() {
+        version.incrementAndGet();
+        fares = null;
+    }
+
+    private static Map<FareKey, Double> fares() throws SQLException {
+        Map<FareKey, Double> current = fares;
+        if (current == null) {
+            synchronized (FareService.class) {
+                current = fares;
+                if (current == null) {
+                    long started = version.get();
+                    current = load();
+                    fares = current;
+                    // An invalidate during the load may be for an edit the load missed. Its bump is
+                    // seen here, or its clear lands after the publish above; either way the table goes.
+                    if (version.get() != started) {
+                        fares = null;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private static Map<FareKey, Double> load() throws SQLException {
+        Map<FareKey, Double> loaded = new HashMap<>();
+
+        for (FareRepository.Fare fare : FareRepository.findAll()) {
+            // First row wins, matching the single-row lookup the controllers used to run
+            loaded.putIfAbsent(new FareKey(fare.flightCode(), fare.seatClass()), fare.baseFare());
+        }
+
+        System.out.println("Fare table loaded with " + loaded.size() + " fares");
+        return loaded;
+    }
+
+    private record FareKey(String flightCode, String seatClass) {}
+}
@@ -0,0 +1,233 @@
+package com.example.airline;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of flight_information shared by all controllers. Loaded once on first use;
+ * the aggregate seat counters are written through after each committed booking or cancellation,
+ * while per-date availability comes from {@link SeatInventory}.
+ * The cached {@link Flight} instances are shared, so callers must not mutate them directly.
+ * Active flights are also indexed by (source, destination), each route list kept sorted by
+ * departure time and replaced copy-on-write so searches never take a lock.
+ */
+public class FlightInventoryCache {
+
+    private static final Comparator<Flight> BY_DEPARTURE =
+            Comparator.comparing(Flight::getDepartureTime, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static volatile Map<String, Flight> flights = null;
+    private static volatile Map<RouteKey, List<Flight>> routes = Map.of();
+    private static volatile long version = 0;
+
+    public static List<Flight> getAllFlights() throws SQLException {
+        List<Flight> result = new ArrayList<>(flights().values());
+        result.sort(Comparator.comparing(Flight::getFlightCode));
+        return result;
+    }
+
+    public static List<Flight> getActiveFlights() throws SQLException {
+        List<Flight> result = new ArrayList<>();
+        for (Flight flight : flights().values()) {
+            if (flight.isActive()) {
+                result.add(flight);
+            }
+        }
+        result.sort(Comparator.comparing(Flight::getFlightCode));
+        return result;
+    }
+
+    public static Flight getFlight(String flightCode) throws SQLException {
+        return flights().get(flightCode);
+    }
+
+    public static List<Flight> search(String source, String destination, LocalDate travelDate, String seatClass) throws SQLException {
+        flights();
+        List<Flight> route = routes.getOrDefault(new RouteKey(source, destination), List.of());
+
+        List<Flight> result = new ArrayList<>(route.size());
+        for (Flight flight : route) {
+            if (SeatInventory.availableSeats(flight, travelDate, seatClass) > 0) {
+                result.add(flight);
+            }
+        }
+        return result;
+    }
+
+    public static List<Flight> getRoute(String source, String destination) throws SQLException {
+        flights();
+        return routes.getOrDefault(new RouteKey(source, destination), List.of());
+    }
+
+    public static long getVersion() {
+        return version;
+    }
+
+    public static synchronized void recordBooking(String flightCode, String seatClass) {
+        adjustBooked(flightCode, seatClass, 1);
+    }
+
+    public static synchronized void recordCancellation(String flightCode, String seatClass) {
+        adjustBooked(flightCode, seatClass, -1);
+    }
+
+    public static synchronized void recordCancellations(String flightCode, String seatClass, int count) {
+        adjustBooked(flightCode, seatClass, -count);
+    }
+
+    // Replaces the cached flight with an adjusted copy, so readers holding the old instance never see it change
+    private static void adjustBooked(String flightCode, String seatClass, int delta) {
+        Map<String, Flight> current = flights;
+        Flight flight = current == null ? null : current.get(flightCode);
+        if (flight == null) {
+            return;
+        }
+
+        Flight updated = copyOf(flight);
+        if ("Economy".equals(seatClass)) {
+            updated.setEcoSeatsBooked(Math.max(0, flight.getEcoSeatsBooked() + delta));
+        } else {
+            updated.setExeSeatsBooked(Math.max(0, flight.getExeSeatsBooked() + delta));
+        }
+        current.put(flightCode, updated);
+        if (flight.isActive()) {
+            reindex(flight, updated);
+        }
+    }
+
+    private static Flight copyOf(Flight flight) {
+        Flight copy = new Flight(flight.getFlightCode(), flight.getFlightName(), flight.getRoute(),
+                flight.getSourcePlace(), flight.getDestinationPlace(), flight.getDepartureTime(),
+                flight.getArrivalTime(), flight.getEconomySeats(), flight.getBusinessSeats(),
+                flight.getEcoSeatsBooked(), flight.getExeSeatsBooked());
+        copy.setFlightId(flight.getFlightId());
+        copy.setActive(flight.isActive());
+        return copy;
+    }
+
+    public static synchronized void put(Flight flight) {
+        if (flights != null) {
+            Flight previous = flights.put(flight.getFlightCode(), flight);
+            if (previous != null) {
+                unindex(previous);
+            }
+            if (flight.isActive()) {
+                index(flight);
+            }
+            version++;
+        }
+    }
+
+    public static synchronized void remove(String flightCode) {
+        if (flights != null) {
+            Flight previous = flights.remove(flightCode);
+            if (previous != null) {
+                unindex(previous);
+            }
+            version++;
+        }
+    }
+
+    private static void index(Flight flight) {
+        RouteKey key = RouteKey.of(flight);
+        List<Flight> current = routes.getOrDefault(key, List.of());
+
+        List<Flight> updated = new ArrayList<>(current.size() + 1);
+        updated.addAll(current);
+        int position = Collections.binarySearch(updated, flight, BY_DEPARTURE);
+        updated.add(position < 0 ? -position - 1 : position, flight);
+
+        Map<RouteKey, List<Flight>> copy = new HashMap<>(routes);
+        copy.put(key, Collections.unmodifiableList(updated));
+        routes = copy;
+    }
+
+    private static void unindex(Flight flight) {
+        RouteKey key = RouteKey.of(flight);
+        List<Flight> current = routes.get(key);
+        if (current == null || !current.contains(flight)) {
+            return;
+        }
+
+        List<Flight> updated = new ArrayList<>(current);
+        updated.remove(flight);
+
+        Map<RouteKey, List<Flight>> copy = new HashMap<>(routes);
+        if (updated.isEmpty()) {
+            copy.remove(key);
+        } else {
+            copy.put(key, Collections.unmodifiableList(updated));
+        }
+        routes = copy;
+    }
+
+    // Same schedule, so the copy takes the old flight's place in its route list and the version stays
+    private static void reindex(Flight previous, Flight updated) {
+        RouteKey key = RouteKey.of(previous);
+        List<Flight> current = routes.get(key);
+        int position = current == null ? -1 : current.indexOf(previous);
+        if (position < 0) {
+            return;
+        }
+
+        List<Flight> replaced = new ArrayList<>(current);
+        replaced.set(position, updated);
+
+        Map<RouteKey, List<Flight>> copy = new HashMap<>(routes);
+        copy.put(key, Collections.unmodifiableList(replaced));
+        routes = copy;
+    }
+
+    private static Map<RouteKey, List<Flight>> buildRouteIndex(Map<String, Flight> source) {
+        Map<RouteKey, List<Flight>> index = new HashMap<>();
+        for (Flight flight : source.values()) {
+            if (flight.isActive()) {
+                index.computeIfAbsent(RouteKey.of(flight), key -> new ArrayList<>()).add(flight);
+            }
+        }
+        for (Map.Entry<RouteKey, List<Flight>> entry : index.entrySet()) {
+            entry.getValue().sort(BY_DEPARTURE);
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return index;
+    }
+
+    public static synchronized void reload() throws SQLException {
+        Map<String, Flight> loaded = new ConcurrentHashMap<>();
+
+        for (Flight flight : FlightRepository.findAll()) {
+            loaded.put(flight.getFlightCode(), flight);
+        }
+
+        routes = buildRouteIndex(loaded);
+        flights = loaded;
+        version++;
+        System.out.println("Flight inventory cache loaded " + loaded.size() + " flights on " + routes.size() + " routes");
+    }
+
+    private static Map<String, Flight> flights() throws SQLException {
+        Map<String, Flight> current = flights;
+        if (current == null) {
+            synchronized (FlightInventoryCache.class) {
+                if (flights == null) {
+                    reload();
+                }
+                current = flights;
+            }
+        }
+        return current;
+    }
+
+    private record RouteKey(String source, String destination) {
+        private static RouteKey of(Flight flight) {
+            return new RouteKey(flight.getSourcePlace(), flight.getDestinationPlace());
+        }
+    }
+}
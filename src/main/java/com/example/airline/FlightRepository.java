@@ -0,0 +1,165 @@
+package com.example.airline;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL for flight_information. Rows are mapped by column position, so {@link #COLUMNS} and
+ * {@link #map(ResultSet)} must change together.
+ */
+public final class FlightRepository {
+
+    static final String COLUMNS =
+            "flight_id, f_code, f_name, route, source_place, destination_place, departure_time, arrival_time, " +
+            "t_eco_seatno, t_exe_seatno, eco_seats_booked, exe_seats_booked, is_active";
+
+    private static final String FIND_ALL_SQL = "SELECT " + COLUMNS + " FROM flight_information";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO flight_information
+            (f_code, f_name, route, source_place, destination_place, departure_time, arrival_time,
+             t_eco_seatno, t_exe_seatno, eco_seats_booked, exe_seats_booked, is_active)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE flight_information
+            SET f_name = ?, route = ?, source_place = ?, destination_place = ?,
+                departure_time = ?, arrival_time = ?, t_eco_seatno = ?, t_exe_seatno = ?,
+                eco_seats_booked = ?, exe_seats_booked = ?, is_active = ?
+            WHERE flight_id = ?
+            """;
+
+    private static final String HAS_RESERVATIONS_SQL = """
+            SELECT EXISTS (SELECT 1 FROM reservations
+                           WHERE f_code = (SELECT f_code FROM flight_information WHERE flight_id = ?))
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM flight_information WHERE flight_id = ?";
+
+    // flight_information keeps the running total across all departures for the management screens
+    private static final String ADJUST_ECONOMY_SQL =
+            "UPDATE flight_information SET eco_seats_booked = MAX(0, eco_seats_booked + ?) WHERE f_code = ?";
+
+    private static final String ADJUST_BUSINESS_SQL =
+            "UPDATE flight_information SET exe_seats_booked = MAX(0, exe_seats_booked + ?) WHERE f_code = ?";
+
+    private FlightRepository() {}
+
+    public static List<Flight> findAll() throws SQLException {
+        List<Flight> flights = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FIND_ALL_SQL)) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    flights.add(map(rs));
+                }
+            }
+        }
+        return flights;
+    }
+
+    // Sets the generated flight_id on the flight, so it can be cached and edited straight away
+    public static boolean insert(Flight flight) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, flight.getFlightCode());
+            pstmt.setString(2, flight.getFlightName());
+            pstmt.setString(3, flight.getRoute());
+            pstmt.setString(4, flight.getSourcePlace());
+            pstmt.setString(5, flight.getDestinationPlace());
+            pstmt.setString(6, flight.getDepartureTime());
+            pstmt.setString(7, flight.getArrivalTime());
+            pstmt.setInt(8, flight.getEconomySeats());
+            pstmt.setInt(9, flight.getBusinessSeats());
+            pstmt.setInt(10, flight.getEcoSeatsBooked());
+            pstmt.setInt(11, flight.getExeSeatsBooked());
+            pstmt.setBoolean(12, true);
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    flight.setFlightId(generatedKeys.getInt(1));
+                    return true;
+                }
+                throw new SQLException("Creating flight failed, no ID obtained.");
+            }
+        }
+    }
+
+    public static boolean update(Flight flight) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+            pstmt.setString(1, flight.getFlightName());
+            pstmt.setString(2, flight.getRoute());
+            pstmt.setString(3, flight.getSourcePlace());
+            pstmt.setString(4, flight.getDestinationPlace());
+            pstmt.setString(5, flight.getDepartureTime());
+            pstmt.setString(6, flight.getArrivalTime());
+            pstmt.setInt(7, flight.getEconomySeats());
+            pstmt.setInt(8, flight.getBusinessSeats());
+            pstmt.setInt(9, flight.getEcoSeatsBooked());
+            pstmt.setInt(10, flight.getExeSeatsBooked());
+            pstmt.setBoolean(11, flight.isActive());
+            pstmt.setInt(12, flight.getFlightId());
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    public static boolean hasReservations(int flightId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(HAS_RESERVATIONS_SQL)) {
+            pstmt.setInt(1, flightId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    public static boolean delete(int flightId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+            pstmt.setInt(1, flightId);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Moves the flight's booked-seat total for the class by delta, inside the caller's transaction.
+     * The total never goes below zero.
+     */
+    public static void adjustBookedSeats(Connection conn, String flightCode, String seatClass, int delta) throws SQLException {
+        String sql = "Economy".equals(seatClass) ? ADJUST_ECONOMY_SQL : ADJUST_BUSINESS_SQL;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, delta);
+            pstmt.setString(2, flightCode);
+            pstmt.executeUpdate();
+        }
+    }
+
+    static Flight map(ResultSet rs) throws SQLException {
+        Flight flight = new Flight(
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getString(7),
+                rs.getString(8),
+                rs.getInt(9),
+                rs.getInt(10),
+                rs.getInt(11),
+                rs.getInt(12)
+        );
+        flight.setFlightId(rs.getInt(1));
+        flight.setActive(rs.getBoolean(13));
+        return flight;
+    }
+}
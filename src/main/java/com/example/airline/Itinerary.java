@@ -0,0 +1,50 @@
+package com.example.airline;
+
+import java.util.List;
+
+public class Itinerary {
+    private final List<Flight> legs;
+    private final List<Integer> legDepartureMinutes;
+    private final int departureMinute;
+    private final int arrivalMinute;
+
+    public Itinerary(List<Flight> legs, List<Integer> legDepartureMinutes, int departureMinute, int arrivalMinute) {
+        this.legs = List.copyOf(legs);
+        this.legDepartureMinutes = List.copyOf(legDepartureMinutes);
+        this.departureMinute = departureMinute;
+        this.arrivalMinute = arrivalMinute;
+    }
+
+    public List<Flight> getLegs() { return legs; }
+
+    // Minutes from midnight of the travel date; values of 1440 or more fall on later days
+    public List<Integer> getLegDepartureMinutes() { return legDepartureMinutes; }
+    public int getDepartureMinute() { return departureMinute; }
+    public int getArrivalMinute() { return arrivalMinute; }
+
+    public int getTotalMinutes() { return arrivalMinute - departureMinute; }
+    public int getStops() { return legs.size() - 1; }
+    public int getArrivalDayOffset() { return arrivalMinute / 1440; }
+
+    public String getSourcePlace() { return legs.get(0).getSourcePlace(); }
+    public String getDestinationPlace() { return legs.get(legs.size() - 1).getDestinationPlace(); }
+
+    public static String formatMinute(int minute) {
+        int ofDay = minute % 1440;
+        return String.format("%02d:%02d", ofDay / 60, ofDay % 60);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Flight leg : legs) {
+            if (sb.length() > 0) {
+                sb.append(" + ");
+            }
+            sb.append(leg.getFlightCode());
+        }
+        return sb + " (" + getSourcePlace() + " " + formatMinute(departureMinute) + " → " +
+                getDestinationPlace() + " " + formatMinute(arrivalMinute) +
+                (getArrivalDayOffset() > 0 ? " +" + getArrivalDayOffset() : "") + ")";
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.airline;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Just enough JSON for {@link ApiServer}: a reader for flat request objects and a writer that
+ * encodes straight onto the response stream, so a response is never built up as one String.
+ */
+final class Json {
+
+    // Request bodies larger than this are refused before parsing
+    static final int MAX_REQUEST_BYTES = 16 * 1024;
+
+    private Json() {}
+
+    /**
+     * Reads one object whose values are strings, numbers, booleans or null. Numbers and booleans
+     * come back as their text. Nested objects and arrays are rejected.
+     */
+    static Map<String, String> readObject(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_REQUEST_BYTES + 1);
+        if (body.length > MAX_REQUEST_BYTES) {
+            throw new IllegalArgumentException("Request body is larger than " + MAX_REQUEST_BYTES + " bytes");
+        }
+        return new Parser(new String(body, StandardCharsets.UTF_8)).object();
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private Map<String, String> object() {
+            Map<String, String> fields = new LinkedHashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+            } else {
+                do {
+                    String name = string();
+                    expect(':');
+                    fields.put(name, value());
+                } while (next(',', '}') == ',');
+            }
+            if (peek() != 0) {
+                throw error("Unexpected content after object");
+            }
+            return fields;
+        }
+
+        private String value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (c == '{' || c == '[') {
+                throw error("Nested values are not supported");
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false")) {
+                return literal;
+            }
+            try {
+                new BigDecimal(literal);
+            } catch (NumberFormatException e) {
+                throw error("Invalid value '" + literal + "'");
+            }
+            return literal;
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder out = new StringBuilder();
+            while (true) {
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'n' -> out.append('\n');
+                    case 'r' -> out.append('\r');
+                    case 't' -> out.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw error("Invalid unicode escape");
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> out.append(escaped);
+                }
+            }
+        }
+
+        // Skips whitespace and returns the next character without consuming it, 0 at the end
+        private char peek() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        private char next(char a, char b) {
+            char c = peek();
+            if (c != a && c != b) {
+                throw error("Expected '" + a + "' or '" + b + "'");
+            }
+            pos++;
+            return c;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Malformed JSON at position " + pos + ": " + message);
+        }
+    }
+
+    /**
+     * Writes JSON to a stream as it is produced. Commas are placed automatically: a value or
+     * container that follows a sibling gets one, the first entry after an opening bracket does not.
+     */
+    static final class Writer implements AutoCloseable {
+        private final java.io.Writer out;
+        private boolean needsComma;
+
+        Writer(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        }
+
+        Writer beginObject() throws IOException {
+            separate();
+            out.write('{');
+            needsComma = false;
+            return this;
+        }
+
+        Writer endObject() throws IOException {
+            out.write('}');
+            needsComma = true;
+            return this;
+        }
+
+        Writer beginArray() throws IOException {
+            separate();
+            out.write('[');
+            needsComma = false;
+            return this;
+        }
+
+        Writer endArray() throws IOException {
+            out.write(']');
+            needsComma = true;
+            return this;
+        }
+
+        Writer name(String name) throws IOException {
+            separate();
+            string(name);
+            out.write(':');
+            needsComma = false;
+            return this;
+        }
+
+        Writer value(String value) throws IOException {
+            separate();
+            if (value == null) {
+                out.write("null");
+            } else {
+                string(value);
+            }
+            needsComma = true;
+            return this;
+        }
+
+        Writer value(long value) throws IOException {
+            return raw(Long.toString(value));
+        }
+
+        Writer value(double value) throws IOException {
+            return raw(Double.isFinite(value) ? Double.toString(value) : "null");
+        }
+
+        Writer value(boolean value) throws IOException {
+            return raw(Boolean.toString(value));
+        }
+
+        // Amounts are written as plain decimals, never in exponent form
+        Writer value(BigDecimal value) throws IOException {
+            return raw(value == null ? "null" : value.toPlainString());
+        }
+
+        Writer field(String name, String value) throws IOException {
+            return name(name).value(value);
+        }
+
+        Writer field(String name, long value) throws IOException {
+            return name(name).value(value);
+        }
+
+        Writer field(String name, double value) throws IOException {
+            return name(name).value(value);
+        }
+
+        Writer field(String name, boolean value) throws IOException {
+            return name(name).value(value);
+        }
+
+        Writer field(String name, BigDecimal value) throws IOException {
+            return name(name).value(value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private Writer raw(String literal) throws IOException {
+            separate();
+            out.write(literal);
+            needsComma = true;
+            return this;
+        }
+
+        private void separate() throws IOException {
+            if (needsComma) {
+                out.write(',');
+                needsComma = false;
+            }
+        }
+
+        private void string(String value) throws IOException {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                    }
+                }
+            }
+            out.write('"');
+        }
+    }
+}
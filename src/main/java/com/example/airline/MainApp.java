@@ -21,6 +21,12 @@ public class MainApp extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        DataAccessExecutor.shutdown();
+        TicketService.shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
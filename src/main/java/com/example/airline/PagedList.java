@@ -0,0 +1,121 @@
+package com.example.airline;
+
+import javafx.collections.ObservableListBase;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only list for a TableView that fetches rows a page at a time as they are scrolled into view.
+ * Only the most recently used pages are kept. A page following one already seen is fetched with a
+ * keyset cursor (the last row of the previous page); jumping straight to an unseen page falls back
+ * to an offset query. The row count is read once, so a changed result set needs a new list.
+ *
+ * <p>The constructor reads the count and the first page, so it belongs on a background thread.
+ * After that the list is used on the FX thread: a row whose page is not loaded reads as null while
+ * the page is fetched through {@link DataAccessExecutor}, and the rows are replaced when it arrives.
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+
+    public interface PageSource<T> {
+        int count() throws SQLException;
+
+        // Rows that sort after the given row, in list order
+        List<T> fetchAfter(T last, int limit) throws SQLException;
+
+        List<T> fetchAt(int offset, int limit) throws SQLException;
+    }
+
+    private static final int MAX_CURSORS = 1024;
+
+    private final PageSource<T> source;
+    private final int pageSize;
+    private final int size;
+    private final Map<Integer, List<T>> pages;
+    private final Map<Integer, T> cursors;
+    private final Set<Integer> loading = new HashSet<>();
+
+    public PagedList(PageSource<T> source, int pageSize, int maxPages) throws SQLException {
+        this.source = source;
+        this.pageSize = pageSize;
+        this.size = source.count();
+        this.pages = new LinkedHashMap<>(maxPages + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+        this.cursors = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+                return size() > MAX_CURSORS;
+            }
+        };
+        if (size > 0) {
+            store(0, source.fetchAt(0, pageSize));
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+
+        int pageIndex = index / pageSize;
+        List<T> page = pages.get(pageIndex);
+        if (page == null) {
+            load(pageIndex);
+            return null;
+        }
+        int offset = index % pageSize;
+        // Rows deleted since the count was taken leave the tail short
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    private void load(int pageIndex) {
+        if (!loading.add(pageIndex)) {
+            return;
+        }
+
+        T cursor = pageIndex > 0 ? cursors.get(pageIndex - 1) : null;
+        DataAccessExecutor.submit(() -> cursor != null
+                ? source.fetchAfter(cursor, pageSize)
+                : source.fetchAt(pageIndex * pageSize, pageSize), page -> {
+            loading.remove(pageIndex);
+            store(pageIndex, page);
+
+            int from = pageIndex * pageSize;
+            int to = Math.min(from + pageSize, size);
+            beginChange();
+            for (int i = from; i < to; i++) {
+                nextSet(i, null);
+            }
+            endChange();
+        }, e -> {
+            // Left unloaded, so the page is asked for again the next time one of its rows is shown
+            loading.remove(pageIndex);
+            System.err.println("Error loading page " + pageIndex + ": " + e.getMessage());
+        });
+    }
+
+    private void store(int pageIndex, List<T> page) {
+        pages.put(pageIndex, page);
+        if (!page.isEmpty()) {
+            cursors.put(pageIndex, page.get(page.size() - 1));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.airline;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues booking references without touching the database. Each PNR packs seconds since
+ * 2024-01-01, a node id (system property airline.pnr.node, 0-31) and a per-second sequence into
+ * 55 bits. The bits are scrambled with a reversible mix so consecutive PNRs look unrelated, then
+ * written as 11 Crockford Base32 characters plus one check character.
+ *
+ * <p>A single CAS on the last issued value keeps codes unique across threads. When more than
+ * 2^20 codes are requested in one second, the sequence borrows from the next second instead
+ * of repeating.
+ *
+ * <p>Codes are only guaranteed unique across processes sharing a database when each sets its own
+ * airline.pnr.node. Without it the node comes from the process id and each second's sequence starts
+ * at a random offset, which makes a clash unlikely but not impossible; a warning is logged.
+ */
+public final class PnrGenerator {
+
+    public static final int LENGTH = 12;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long EPOCH_SECONDS = 1704067200L; // 2024-01-01T00:00:00Z
+
+    private static final int SEQUENCE_BITS = 20;
+    private static final int NODE_BITS = 5;
+    private static final int PAYLOAD_BITS = 55;
+    private static final long PAYLOAD_MASK = (1L << PAYLOAD_BITS) - 1;
+
+    private static final long MULTIPLIER_1 = 0x5DEECE66DL | 1L;
+    private static final long MULTIPLIER_2 = 0x2545F4914F6CDD1DL & PAYLOAD_MASK | 1L;
+
+    private static final String NODE_PROPERTY = "airline.pnr.node";
+    private static final long NODE = node();
+    // Start of each second's sequence; 0 when the node is configured
+    private static final long SEQUENCE_OFFSET = Long.getLong(NODE_PROPERTY) != null
+            ? 0 : ThreadLocalRandom.current().nextLong(1L << (SEQUENCE_BITS - 1));
+
+    private static final AtomicLong last = new AtomicLong();
+
+    private PnrGenerator() {}
+
+    public static String next() {
+        long floor = (System.currentTimeMillis() / 1000 - EPOCH_SECONDS) << SEQUENCE_BITS | SEQUENCE_OFFSET;
+        long tick = last.updateAndGet(previous -> Math.max(previous + 1, floor));
+
+        long seconds = tick >>> SEQUENCE_BITS;
+        long sequence = tick & ((1L << SEQUENCE_BITS) - 1);
+        long payload = (seconds << (NODE_BITS + SEQUENCE_BITS) | NODE << SEQUENCE_BITS | sequence) & PAYLOAD_MASK;
+
+        return encode(scramble(payload));
+    }
+
+    public static boolean isValid(String pnr) {
+        if (pnr == null || pnr.length() != LENGTH) {
+            return false;
+        }
+        int[] digits = new int[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            digits[i] = indexOf(pnr.charAt(i));
+            if (digits[i] < 0) {
+                return false;
+            }
+        }
+        return checkDigit(digits, LENGTH - 1) == digits[LENGTH - 1];
+    }
+
+    private static long node() {
+        Long configured = Long.getLong(NODE_PROPERTY);
+        if (configured != null) {
+            return configured & ((1L << NODE_BITS) - 1);
+        }
+        System.err.println("Warning: " + NODE_PROPERTY + " is not set; give each process sharing the database "
+                + "its own node (0-31) to keep PNRs unique");
+        return ProcessHandle.current().pid() & ((1L << NODE_BITS) - 1);
+    }
+
+    // Multiplying by an odd constant and xor-shifting right are both bijections on 55 bits
+    private static long scramble(long value) {
+        value = (value * MULTIPLIER_1) & PAYLOAD_MASK;
+        value ^= value >>> 29;
+        value = (value * MULTIPLIER_2) & PAYLOAD_MASK;
+        value ^= value >>> 31;
+        return value;
+    }
+
+    private static String encode(long value) {
+        int[] digits = new int[LENGTH];
+        for (int i = LENGTH - 2; i >= 0; i--) {
+            digits[i] = (int) (value & 31);
+            value >>>= 5;
+        }
+        digits[LENGTH - 1] = checkDigit(digits, LENGTH - 1);
+
+        char[] chars = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            chars[i] = ALPHABET[digits[i]];
+        }
+        return new String(chars);
+    }
+
+    // Position-weighted sum mod 31 (prime): catches mistyped characters and adjacent swaps
+    private static int checkDigit(int[] digits, int count) {
+        int sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += digits[i] * (i + 1);
+        }
+        return sum % 31;
+    }
+
+    private static int indexOf(char c) {
+        char upper = Character.toUpperCase(c);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == upper) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
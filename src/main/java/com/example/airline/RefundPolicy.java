@@ -0,0 +1,219 @@
+package com.example.airline;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Cancellation charges by days to departure. The bands come from the refund_bands setting, written
+ * as "days:percent" pairs meaning "cancelled at least this many days out, charge this percentage",
+ * and are expanded once into a table with one entry per day. A quote is then an array lookup and
+ * integer arithmetic in cents. A settings save that changes the bands rebuilds the table through a
+ * {@link SettingsStore} listener; saves of other keys keep it, and a reload is picked up on the next quote.
+ */
+public final class RefundPolicy {
+
+    public static final String DEFAULT_BANDS = "31:10,16:25,8:50,3:75,0:90";
+
+    // A booking whose travel date cannot be read is charged this flat rate, whatever the bands say
+    private static final int UNREADABLE_DATE_BASIS_POINTS = 2_500;
+
+    // Passed as daysToDeparture when the travel date could not be read
+    private static final long UNKNOWN_DAYS = Long.MIN_VALUE;
+
+    private static volatile RefundPolicy current = null;
+
+    static {
+        SettingsStore.addListener(RefundPolicy::settingsChanged);
+    }
+
+    // chargeBasisPoints[d] applies to a departure d days away; the last entry covers everything further out
+    private final int[] chargeBasisPoints;
+    private final String bands;
+    // The snapshot the bands were read from; null for a policy built by parse
+    private final SettingsStore.Settings source;
+
+    private RefundPolicy(int[] chargeBasisPoints, String bands, SettingsStore.Settings source) {
+        this.chargeBasisPoints = chargeBasisPoints;
+        this.bands = bands;
+        this.source = source;
+    }
+
+    /**
+     * Fare, charge and refund in cents. The charge is rounded half up to the cent and the refund is
+     * whatever is left, so the two always add up to the fare.
+     */
+    public record Quote(long fareCents, long chargeCents, int chargeBasisPoints) {
+        public long refundCents() {
+            return fareCents - chargeCents;
+        }
+
+        public BigDecimal fare() {
+            return BigDecimal.valueOf(fareCents, 2);
+        }
+
+        public BigDecimal charge() {
+            return BigDecimal.valueOf(chargeCents, 2);
+        }
+
+        public BigDecimal refund() {
+            return BigDecimal.valueOf(refundCents(), 2);
+        }
+    }
+
+    public static RefundPolicy current() throws SQLException {
+        SettingsStore.Settings settings = SettingsStore.get();
+        RefundPolicy policy = current;
+        if (policy == null || policy.source != settings) {
+            policy = fromSettings(settings);
+            current = policy;
+        }
+        return policy;
+    }
+
+    /**
+     * Parses a band list such as {@link #DEFAULT_BANDS}. Percentages may have up to two decimals.
+     * Throws IllegalArgumentException naming the bad entry.
+     */
+    public static RefundPolicy parse(String bands) {
+        TreeMap<Integer, Integer> byDays = new TreeMap<>();
+        for (String entry : bands.split(",")) {
+            String[] parts = entry.trim().split(":");
+            try {
+                if (parts.length != 2) {
+                    throw new NumberFormatException();
+                }
+                int days = Integer.parseInt(parts[0].trim());
+                int basisPoints = new BigDecimal(parts[1].trim()).movePointRight(2).intValueExact();
+                if (days < 0 || basisPoints < 0 || basisPoints > 10_000) {
+                    throw new NumberFormatException();
+                }
+                byDays.put(days, basisPoints);
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException("Invalid refund band \"" + entry.trim() +
+                        "\", expected days:percent with percent between 0 and 100");
+            }
+        }
+        if (!byDays.containsKey(0)) {
+            throw new IllegalArgumentException("Refund bands must include a band starting at 0 days");
+        }
+
+        int[] table = new int[byDays.lastKey() + 1];
+        for (int days = 0; days < table.length; days++) {
+            table[days] = byDays.floorEntry(days).getValue();
+        }
+        return new RefundPolicy(table, bands, null);
+    }
+
+    public String getBands() {
+        return bands;
+    }
+
+    public Quote quote(BigDecimal fare, String travelDate, LocalDate today) {
+        return quote(toCents(fare), daysBetween(today.toEpochDay(), travelDate));
+    }
+
+    public Quote quote(long fareCents, long daysToDeparture) {
+        int basisPoints = chargeBasisPoints(daysToDeparture);
+        return new Quote(fareCents, charge(fareCents, basisPoints), basisPoints);
+    }
+
+    /**
+     * Quotes many reservations in one pass, e.g. every booking on a disrupted departure. The arrays
+     * are parallel: fares in cents and travel dates as ISO strings. Charges are written to the
+     * returned array in the same order; refunds are fare minus charge.
+     */
+    public long[] charges(long[] fareCents, String[] travelDates, LocalDate today) {
+        long todayEpochDay = today.toEpochDay();
+        long[] charges = new long[fareCents.length];
+        for (int i = 0; i < fareCents.length; i++) {
+            charges[i] = charge(fareCents[i], chargeBasisPoints(daysBetween(todayEpochDay, travelDates[i])));
+        }
+        return charges;
+    }
+
+    public List<Quote> quoteAll(long[] fareCents, String[] travelDates, LocalDate today) {
+        long todayEpochDay = today.toEpochDay();
+        List<Quote> quotes = new ArrayList<>(fareCents.length);
+        for (int i = 0; i < fareCents.length; i++) {
+            quotes.add(quote(fareCents[i], daysBetween(todayEpochDay, travelDates[i])));
+        }
+        return quotes;
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long toCents(double amount) {
+        return toCents(BigDecimal.valueOf(amount));
+    }
+
+    private int chargeBasisPoints(long daysToDeparture) {
+        if (daysToDeparture == UNKNOWN_DAYS) {
+            return UNREADABLE_DATE_BASIS_POINTS;
+        }
+        // Departed flights get the closest-in band
+        int index = (int) Math.max(0, Math.min(daysToDeparture, chargeBasisPoints.length - 1));
+        return chargeBasisPoints[index];
+    }
+
+    private static long charge(long fareCents, int basisPoints) {
+        return (fareCents * basisPoints + 5_000) / 10_000;
+    }
+
+    // Reads "yyyy-MM-dd" without LocalDate.parse; anything else is UNKNOWN_DAYS
+    private static long daysBetween(long todayEpochDay, String travelDate) {
+        if (travelDate == null || travelDate.length() < 10 || travelDate.charAt(4) != '-' || travelDate.charAt(7) != '-') {
+            return UNKNOWN_DAYS;
+        }
+        int year = digits(travelDate, 0, 4);
+        int month = digits(travelDate, 5, 7);
+        int day = digits(travelDate, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return UNKNOWN_DAYS;
+        }
+        try {
+            return LocalDate.of(year, month, day).toEpochDay() - todayEpochDay;
+        } catch (RuntimeException e) {
+            return UNKNOWN_DAYS;
+        }
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static RefundPolicy fromSettings(SettingsStore.Settings settings) {
+        RefundPolicy policy;
+        try {
+            policy = parse(settings.getString(SettingsStore.REFUND_BANDS));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring refund bands setting: " + e.getMessage());
+            policy = parse(DEFAULT_BANDS);
+        }
+        return new RefundPolicy(policy.chargeBasisPoints, policy.bands, settings);
+    }
+
+    private static void settingsChanged(SettingsStore.SettingsChange change) {
+        RefundPolicy policy = current;
+        if (policy == null) {
+            return;
+        }
+        current = change.changed(SettingsStore.REFUND_BANDS)
+                ? fromSettings(change.current())
+                : new RefundPolicy(policy.chargeBasisPoints, policy.bands, change.current());
+    }
+}
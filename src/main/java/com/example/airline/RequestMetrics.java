@@ -0,0 +1,95 @@
+package com.example.airline;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts for one API route. Latencies go into a fixed histogram whose bucket
+ * bounds double from 100 microseconds, so recording is a few atomic increments with no locking and
+ * percentiles are reported as the upper bound of the bucket they fall in.
+ */
+final class RequestMetrics {
+
+    private static final long FIRST_BOUND_NANOS = 100_000;
+    private static final int BUCKETS = 20; // the last bound is about 52 seconds; slower requests land there too
+
+    private final String route;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    RequestMetrics(String route) {
+        this.route = route;
+    }
+
+    String getRoute() {
+        return route;
+    }
+
+    void record(int status, long nanos) {
+        count.increment();
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram.incrementAndGet(bucket(nanos));
+    }
+
+    void write(Json.Writer json) throws IOException {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histogram.get(i);
+            total += counts[i];
+        }
+
+        json.beginObject()
+                .field("route", route)
+                .field("count", count.sum())
+                .field("clientErrors", clientErrors.sum())
+                .field("serverErrors", serverErrors.sum())
+                .field("avgMs", millis(totalNanos.sum() / Math.max(1, count.sum())))
+                .field("p50Ms", millis(percentile(counts, total, 0.50)))
+                .field("p95Ms", millis(percentile(counts, total, 0.95)))
+                .field("p99Ms", millis(percentile(counts, total, 0.99)))
+                .field("maxMs", millis(maxNanos.get()))
+                .endObject();
+    }
+
+    private static int bucket(long nanos) {
+        int bucket = 0;
+        long bound = FIRST_BOUND_NANOS;
+        while (nanos > bound && bucket < BUCKETS - 1) {
+            bound <<= 1;
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return FIRST_BOUND_NANOS << i;
+            }
+        }
+        return FIRST_BOUND_NANOS << (BUCKETS - 1);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.airline;
+
+import java.math.BigDecimal;
+
+/**
+ * One reservation joined with its passenger name and flight, as the booking screens, tickets and
+ * cancellations read it. Passenger and flight fields are null when the joined row is missing.
+ */
+public record ReservationDetails(int reservationId, String createdAt, String pnr, String passenger,
+                                 String flightCode, String flightName, String sourcePlace,
+                                 String destinationPlace, String seatClass, String seatNumber,
+                                 String travelDate, BigDecimal finalFare, String status,
+                                 String departureTime, String arrivalTime) {
+
+    // "AL102 - Air Lesotho", as the booking tables show it
+    public String flight() {
+        return flightCode + " - " + flightName;
+    }
+
+    public String route(String separator) {
+        return sourcePlace + separator + destinationPlace;
+    }
+}
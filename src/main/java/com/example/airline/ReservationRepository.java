@@ -0,0 +1,415 @@
+package com.example.airline;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * SQL for reservations and the cancellations written against them. Reads return
+ * {@link ReservationDetails}, mapped by column position from {@link #COLUMNS}. Writes that are
+ * part of a larger transaction take the caller's connection.
+ */
+public final class ReservationRepository {
+
+    private static final String COLUMNS = """
+            r.reservation_id, r.created_at, r.pnr_number, c.cust_name, r.f_code, f.f_name,
+                   f.source_place, f.destination_place, r.class_type, r.seat_number, r.travel_date,
+                   r.final_fare, r.status, f.departure_time, f.arrival_time""";
+
+    private static final String JOINS = """
+            LEFT JOIN customer_details c ON r.pnr_number = c.pnr_number
+            LEFT JOIN flight_information f ON r.f_code = f.f_code
+            """;
+
+    private static final String SELECT_SQL = "SELECT " + COLUMNS + "\nFROM reservations r\n" + JOINS;
+
+    private static final String NEWEST_FIRST_SQL = " ORDER BY r.created_at DESC, r.reservation_id DESC LIMIT ?";
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM reservations";
+
+    // The keyset (created_at, reservation_id) matches idx_reservations_created, so a page is an index range scan
+    private static final String PAGE_AFTER_SQL =
+            SELECT_SQL + "WHERE (r.created_at, r.reservation_id) < (?, ?)" + NEWEST_FIRST_SQL;
+
+    private static final String PAGE_AT_SQL = SELECT_SQL + NEWEST_FIRST_SQL + " OFFSET ?";
+
+    private static final String FIND_BY_PNR_SQL = SELECT_SQL + "WHERE r.pnr_number = ?";
+
+    private static final String FIND_ALL_SQL = SELECT_SQL + "ORDER BY r.travel_date DESC";
+
+    private static final String FIND_LIVE_SQL = SELECT_SQL + """
+            WHERE r.travel_date BETWEEN ? AND ?
+              AND (? IS NULL OR r.f_code = ?)
+              AND r.status <> 'Cancelled'
+            ORDER BY r.travel_date, r.f_code, r.seat_number
+            """;
+
+    private static final String COUNT_MATCHES_SQL =
+            "SELECT COUNT(*) FROM reservation_search WHERE reservation_search MATCH ?";
+
+    private static final String RANKED_MATCHES_SQL = """
+            SELECT rowid AS id, rank AS score FROM reservation_search
+            WHERE reservation_search MATCH ? %s
+            ORDER BY rank, rowid DESC LIMIT ? OFFSET ?
+            """;
+
+    private static final String RECENT_MATCHES_SQL = """
+            SELECT rowid AS id, 0 AS score FROM reservation_search
+            WHERE reservation_search MATCH ? %s
+            ORDER BY rowid DESC LIMIT ? OFFSET ?
+            """;
+
+    private static final String RANKED_PAGE_AT_SQL = matchPageSql(RANKED_MATCHES_SQL.formatted(""));
+    private static final String RECENT_PAGE_AT_SQL = matchPageSql(RECENT_MATCHES_SQL.formatted(""));
+    private static final String RANKED_PAGE_AFTER_SQL =
+            matchPageSql(RANKED_MATCHES_SQL.formatted("AND (rank > ? OR (rank = ? AND rowid < ?))"));
+    private static final String RECENT_PAGE_AFTER_SQL =
+            matchPageSql(RECENT_MATCHES_SQL.formatted("AND rowid < ?"));
+
+    private static final String INSERT_SQL = """
+            INSERT INTO reservations
+            (pnr_number, f_code, cust_id, class_type, seat_number, seat_preference,
+             base_fare, discount_amount, final_fare, concession_type, status, travel_date)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String ALLOCATE_SEAT_SQL = """
+            INSERT INTO seat_allocation (f_code, travel_date, class_type, seat_number, is_window_seat, pnr_number, is_available)
+            VALUES (?, ?, ?, ?, ?, ?, 0)
+            """;
+
+    private static final String FIND_ON_DEPARTURE_SQL = """
+            SELECT pnr_number, cust_id, class_type, final_fare
+            FROM reservations
+            WHERE f_code = ? AND travel_date = ? AND status <> 'Cancelled'
+            ORDER BY reservation_id
+            """;
+
+    private static final String CANCEL_SQL =
+            "UPDATE reservations SET status = 'Cancelled' WHERE pnr_number = ? AND status <> 'Cancelled'";
+
+    private static final String CANCEL_DEPARTURE_SQL =
+            "UPDATE reservations SET status = 'Cancelled' WHERE f_code = ? AND travel_date = ? AND status <> 'Cancelled'";
+
+    private static final String FREE_SEAT_SQL =
+            "UPDATE seat_allocation SET is_available = 1, pnr_number = NULL WHERE pnr_number = ?";
+
+    private static final String FREE_DEPARTURE_SEATS_SQL = """
+            UPDATE seat_allocation SET is_available = 1, pnr_number = NULL
+            WHERE f_code = ? AND travel_date = ? AND pnr_number IS NOT NULL
+            """;
+
+    private static final String INSERT_CANCELLATION_SQL = """
+            INSERT INTO cancellations
+            (pnr_number, f_code, cust_id, class_type, base_amount, cancellation_charge, refund_amount, reason, cancelled_by)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // A reservation found by a full-text search, with its bm25 rank (0 when listed by recency)
+    public record Match(ReservationDetails reservation, double score) {}
+
+    // custId is null for bookings made before reservations recorded the customer
+    public record DepartureBooking(String pnr, Integer custId, String seatClass, BigDecimal fare) {}
+
+    public record Cancellation(String pnr, String flightCode, Integer custId, String seatClass, BigDecimal baseAmount,
+                               BigDecimal charge, BigDecimal refund, String reason, int cancelledBy) {}
+
+    private ReservationRepository() {}
+
+    public static int count() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(COUNT_SQL)) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    // Newest first, skipping offset rows
+    public static List<ReservationDetails> findPage(int offset, int limit) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(PAGE_AT_SQL)) {
+            pstmt.setInt(1, limit);
+            pstmt.setInt(2, offset);
+            return fetch(pstmt, limit);
+        }
+    }
+
+    // Newest first, starting after the given row
+    public static List<ReservationDetails> findPageAfter(String createdAt, int reservationId, int limit) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(PAGE_AFTER_SQL)) {
+            pstmt.setString(1, createdAt);
+            pstmt.setInt(2, reservationId);
+            pstmt.setInt(3, limit);
+            return fetch(pstmt, limit);
+        }
+    }
+
+    public static ReservationDetails findByPnr(String pnr) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FIND_BY_PNR_SQL)) {
+            pstmt.setString(1, pnr);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        }
+    }
+
+    // Every reservation, latest travel date first
+    public static void findAll(Consumer<ReservationDetails> sink) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FIND_ALL_SQL)) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(map(rs));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reservations not cancelled with a travel date in the range, on one flight or, when flightCode is
+     * null, on all flights. Ordered by date, flight and seat.
+     */
+    public static void findLive(LocalDate from, LocalDate to, String flightCode,
+                                Consumer<ReservationDetails> sink) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FIND_LIVE_SQL)) {
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            pstmt.setString(3, flightCode);
+            pstmt.setString(4, flightCode);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(map(rs));
+                }
+            }
+        }
+    }
+
+    public static int countMatches(String matchQuery) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(COUNT_MATCHES_SQL)) {
+            pstmt.setString(1, matchQuery);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * One page of reservation_search (FTS5) matches: by bm25 rank when ranked, otherwise newest
+     * first by rowid. The FTS table picks the page before the join, so only the rows shown are joined.
+     */
+    public static List<Match> searchPage(String matchQuery, boolean ranked, int offset, int limit) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(ranked ? RANKED_PAGE_AT_SQL : RECENT_PAGE_AT_SQL)) {
+            pstmt.setString(1, matchQuery);
+            pstmt.setInt(2, limit);
+            pstmt.setInt(3, offset);
+            return fetchMatches(pstmt, limit);
+        }
+    }
+
+    // The page following the given match, in the same order as searchPage
+    public static List<Match> searchPageAfter(String matchQuery, boolean ranked, double lastScore, int lastReservationId,
+                                              int limit) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(ranked ? RANKED_PAGE_AFTER_SQL : RECENT_PAGE_AFTER_SQL)) {
+            int index = 1;
+            pstmt.setString(index++, matchQuery);
+            if (ranked) {
+                pstmt.setDouble(index++, lastScore);
+                pstmt.setDouble(index++, lastScore);
+            }
+            pstmt.setInt(index++, lastReservationId);
+            pstmt.setInt(index++, limit);
+            pstmt.setInt(index, 0);
+            return fetchMatches(pstmt, limit);
+        }
+    }
+
+    // Writes a confirmed reservation for the customer's PNR and travel date, inside the caller's transaction
+    public static void insert(Connection conn, Customer customer, String flightCode, String seatClass,
+                              String seatNumber, String seatPreference, BigDecimal baseFare,
+                              BigDecimal discountAmount, BigDecimal finalFare) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            pstmt.setString(1, customer.getPnrNumber());
+            pstmt.setString(2, flightCode);
+            pstmt.setInt(3, customer.getCustId());
+            pstmt.setString(4, seatClass);
+            pstmt.setString(5, seatNumber);
+            pstmt.setString(6, seatPreference);
+            pstmt.setBigDecimal(7, baseFare);
+            pstmt.setBigDecimal(8, discountAmount);
+            pstmt.setBigDecimal(9, finalFare);
+            pstmt.setString(10, customer.getConcession());
+            pstmt.setString(11, "Confirmed");
+            pstmt.setString(12, customer.getTravelDate().toString());
+
+            if (pstmt.executeUpdate() == 0) {
+                throw new SQLException("Creating reservation failed, no rows affected.");
+            }
+        }
+    }
+
+    public static void allocateSeat(Connection conn, String pnr, String flightCode, LocalDate travelDate,
+                                    String seatClass, String seatNumber, boolean windowSeat) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(ALLOCATE_SEAT_SQL)) {
+            pstmt.setString(1, flightCode);
+            pstmt.setString(2, travelDate.toString());
+            pstmt.setString(3, seatClass);
+            pstmt.setString(4, seatNumber);
+            pstmt.setBoolean(5, windowSeat);
+            pstmt.setString(6, pnr);
+
+            if (pstmt.executeUpdate() == 0) {
+                throw new SQLException("Allocating seat failed, no rows affected.");
+            }
+        }
+    }
+
+    public static List<DepartureBooking> findOnDeparture(Connection conn, String flightCode, String travelDate) throws SQLException {
+        List<DepartureBooking> bookings = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(FIND_ON_DEPARTURE_SQL)) {
+            pstmt.setString(1, flightCode);
+            pstmt.setString(2, travelDate);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int custId = rs.getInt(2);
+                    Integer customer = rs.wasNull() ? null : custId;
+                    bookings.add(new DepartureBooking(rs.getString(1), customer, rs.getString(3), rs.getBigDecimal(4)));
+                }
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Marks the booking cancelled and frees its seat row, inside the caller's transaction. Returns 0,
+     * changing nothing, if the booking does not exist or is already cancelled.
+     */
+    public static int cancel(Connection conn, String pnr) throws SQLException {
+        int cancelled;
+        try (PreparedStatement cancel = conn.prepareStatement(CANCEL_SQL)) {
+            cancel.setString(1, pnr);
+            cancelled = cancel.executeUpdate();
+        }
+        if (cancelled == 0) {
+            return 0;
+        }
+
+        try (PreparedStatement freeSeat = conn.prepareStatement(FREE_SEAT_SQL)) {
+            freeSeat.setString(1, pnr);
+            freeSeat.executeUpdate();
+        }
+        return cancelled;
+    }
+
+    // Set-based version of cancel for every live booking on one departure
+    public static int cancelDeparture(Connection conn, String flightCode, String travelDate) throws SQLException {
+        int cancelled;
+        try (PreparedStatement cancel = conn.prepareStatement(CANCEL_DEPARTURE_SQL)) {
+            cancel.setString(1, flightCode);
+            cancel.setString(2, travelDate);
+            cancelled = cancel.executeUpdate();
+        }
+
+        try (PreparedStatement freeSeats = conn.prepareStatement(FREE_DEPARTURE_SEATS_SQL)) {
+            freeSeats.setString(1, flightCode);
+            freeSeats.setString(2, travelDate);
+            freeSeats.executeUpdate();
+        }
+        return cancelled;
+    }
+
+    public static void insertCancellation(Connection conn, Cancellation cancellation) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_CANCELLATION_SQL)) {
+            bind(pstmt, cancellation);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Inserts the rows as JDBC batches of batchSize, inside the caller's transaction. afterBatch
+     * receives the number of rows written so far after each batch.
+     */
+    public static void insertCancellations(Connection conn, List<Cancellation> cancellations, int batchSize,
+                                           IntConsumer afterBatch) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_CANCELLATION_SQL)) {
+            for (int i = 0; i < cancellations.size(); i++) {
+                bind(pstmt, cancellations.get(i));
+                pstmt.addBatch();
+                if ((i + 1) % batchSize == 0 || i == cancellations.size() - 1) {
+                    pstmt.executeBatch();
+                    afterBatch.accept(i + 1);
+                }
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement pstmt, Cancellation cancellation) throws SQLException {
+        pstmt.setString(1, cancellation.pnr());
+        pstmt.setString(2, cancellation.flightCode());
+        pstmt.setObject(3, cancellation.custId());
+        pstmt.setString(4, cancellation.seatClass());
+        pstmt.setBigDecimal(5, cancellation.baseAmount());
+        pstmt.setBigDecimal(6, cancellation.charge());
+        pstmt.setBigDecimal(7, cancellation.refund());
+        pstmt.setString(8, cancellation.reason());
+        pstmt.setInt(9, cancellation.cancelledBy());
+    }
+
+    private static List<ReservationDetails> fetch(PreparedStatement pstmt, int limit) throws SQLException {
+        List<ReservationDetails> rows = new ArrayList<>(limit);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                rows.add(map(rs));
+            }
+        }
+        return rows;
+    }
+
+    private static List<Match> fetchMatches(PreparedStatement pstmt, int limit) throws SQLException {
+        List<Match> rows = new ArrayList<>(limit);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                rows.add(new Match(map(rs), rs.getDouble(16)));
+            }
+        }
+        return rows;
+    }
+
+    private static String matchPageSql(String matchesSql) {
+        return "SELECT " + COLUMNS + ", s.score\nFROM (" + matchesSql + ") s\n" +
+                "JOIN reservations r ON r.reservation_id = s.id\n" + JOINS + "ORDER BY s.score, s.id DESC";
+    }
+
+    private static ReservationDetails map(ResultSet rs) throws SQLException {
+        return new ReservationDetails(
+                rs.getInt(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getString(7),
+                rs.getString(8),
+                rs.getString(9),
+                rs.getString(10),
+                rs.getString(11),
+                rs.getBigDecimal(12),
+                rs.getString(13),
+                rs.getString(14),
+                rs.getString(15)
+        );
+    }
+}
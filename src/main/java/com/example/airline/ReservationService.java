@@ -0,0 +1,254 @@
+package com.example.airline;
+
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search, fare quotes, booking, refund quotes and cancellation without any UI. Each operation takes
+ * plain values or a request record and returns a response record, so the JavaFX screens, batch jobs,
+ * load tests and the HTTP API all run the same rules.
+ *
+ * <p>Requests with missing or invalid values throw IllegalArgumentException; requests the current
+ * state refuses, such as a sold-out class or an already cancelled booking, throw
+ * IllegalStateException. Database failures are passed on as SQLException.
+ */
+public final class ReservationService {
+
+    // Used when a flight has no fare row for the class
+    public static final BigDecimal DEFAULT_ECONOMY_FARE = new BigDecimal("2500.00");
+    public static final BigDecimal DEFAULT_BUSINESS_FARE = new BigDecimal("4500.00");
+
+    private static final Map<String, BigDecimal> CONCESSION_RATES = concessionRates();
+
+    // Bookings with a generated PNR that clashes with an existing one are retried with a fresh PNR
+    private static final int MAX_PNR_ATTEMPTS = 3;
+
+    public record SearchRequest(String source, String destination, LocalDate travelDate, String seatClass,
+                                boolean includeConnections) {}
+
+    public record FlightOffer(Flight flight, String seatClass, int availableSeats, BigDecimal fare) {}
+
+    // totalFare is the sum of the leg fares
+    public record ConnectionOffer(Itinerary itinerary, BigDecimal totalFare) {}
+
+    public record SearchResponse(List<FlightOffer> direct, List<ConnectionOffer> connecting) {}
+
+    public record QuoteRequest(String flightCode, String seatClass, String concession) {}
+
+    public record FareQuote(String flightCode, String seatClass, String concession, BigDecimal baseFare,
+                            BigDecimal discountRate, BigDecimal discount, BigDecimal finalFare) {}
+
+    // pnr may be null to have one generated; a supplied one must pass PnrGenerator.isValid
+    public record BookingRequest(String pnr, LocalDate travelDate, String passengerName, String fatherName,
+                                 String gender, LocalDate dateOfBirth, String address, String phone,
+                                 String profession, String concession, String flightCode, String seatClass,
+                                 String seatPreference) {}
+
+    public record BookingConfirmation(String pnr, String flightCode, String seatClass, String seatNumber,
+                                      LocalDate travelDate, FareQuote fare) {}
+
+    public record CancellationRequest(String pnr, String reason, int cancelledBy) {}
+
+    public record RefundQuote(ReservationDetails reservation, RefundPolicy.Quote quote) {}
+
+    private ReservationService() {}
+
+    public static List<String> getConcessions() {
+        return List.copyOf(CONCESSION_RATES.keySet());
+    }
+
+    /**
+     * Direct flights on the route with seats left in the class, each with its fare, plus connecting
+     * itineraries when asked for.
+     */
+    public static SearchResponse search(SearchRequest request) throws SQLException {
+        String source = request.source();
+        String destination = request.destination();
+        LocalDate travelDate = request.travelDate();
+        String seatClass = seatClass(request.seatClass());
+
+        if (source == null || destination == null) {
+            throw new IllegalArgumentException("Please select both source and destination cities.");
+        }
+        if (source.equals(destination)) {
+            throw new IllegalArgumentException("Source and destination cannot be the same.");
+        }
+        if (travelDate == null) {
+            throw new IllegalArgumentException("Please select a travel date.");
+        }
+        if (travelDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Travel date cannot be in the past.");
+        }
+
+        List<Flight> flights = FlightInventoryCache.search(source, destination, travelDate, seatClass);
+        Map<String, Double> fares = FareService.getFares(flights, seatClass);
+        List<FlightOffer> direct = new ArrayList<>(flights.size());
+        for (Flight flight : flights) {
+            direct.add(new FlightOffer(flight, seatClass, SeatInventory.availableSeats(flight, travelDate, seatClass),
+                    fare(fares.get(flight.getFlightCode()), seatClass)));
+        }
+
+        List<ConnectionOffer> connecting = new ArrayList<>();
+        if (request.includeConnections()) {
+            for (Itinerary itinerary : ConnectionSearchService.search(source, destination, travelDate, seatClass)) {
+                if (itinerary.getStops() == 0) {
+                    continue;
+                }
+                Map<String, Double> legFares = FareService.getFares(itinerary.getLegs(), seatClass);
+                BigDecimal total = BigDecimal.ZERO;
+                for (Flight leg : itinerary.getLegs()) {
+                    total = total.add(fare(legFares.get(leg.getFlightCode()), seatClass));
+                }
+                connecting.add(new ConnectionOffer(itinerary, total));
+            }
+        }
+        return new SearchResponse(direct, connecting);
+    }
+
+    // Base fare for the class less the concession discount, rounded half up to the cent
+    public static FareQuote quote(QuoteRequest request) throws SQLException {
+        Flight flight = flight(request.flightCode());
+        String seatClass = seatClass(request.seatClass());
+        String concession = request.concession() == null ? "None" : request.concession();
+        BigDecimal rate = CONCESSION_RATES.get(concession);
+        if (rate == null) {
+            throw new IllegalArgumentException("Unknown concession " + concession);
+        }
+
+        BigDecimal base = fare(FareService.getFare(flight.getFlightCode(), seatClass), seatClass);
+        BigDecimal discount = base.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+        return new FareQuote(flight.getFlightCode(), seatClass, concession, base, rate, discount,
+                base.subtract(discount));
+    }
+
+    /**
+     * Books one seat at the quoted fare. The customer, reservation and seat are written in one
+     * transaction by {@link BookingService}.
+     */
+    public static BookingConfirmation book(BookingRequest request) throws SQLException {
+        if (request.passengerName() == null || request.passengerName().isBlank()) {
+            throw new IllegalArgumentException("Customer name is required");
+        }
+        if (request.travelDate() == null) {
+            throw new IllegalArgumentException("Travel date is required");
+        }
+        if (!SeatInventory.isWithinHorizon(request.travelDate())) {
+            throw new IllegalArgumentException("Travel date must be within the next " + SeatInventory.HORIZON_DAYS + " days");
+        }
+
+        FareQuote fare = quote(new QuoteRequest(request.flightCode(), request.seatClass(), request.concession()));
+        Flight flight = flight(fare.flightCode());
+        if (SeatInventory.availableSeats(flight, request.travelDate(), fare.seatClass()) <= 0) {
+            throw new IllegalStateException("Sorry, no " + fare.seatClass() + " seats available on this flight.");
+        }
+
+        boolean generated = request.pnr() == null || request.pnr().isBlank();
+        String pnr = generated ? PnrGenerator.next() : request.pnr().trim();
+        if (!PnrGenerator.isValid(pnr)) {
+            throw new IllegalArgumentException("PNR " + pnr + " is not a valid booking reference");
+        }
+        String seatPreference = request.seatPreference() == null ? "Any" : request.seatPreference();
+
+        for (int attempt = 1; ; attempt++) {
+            Customer customer = new Customer(pnr, request.travelDate(), request.passengerName(), request.fatherName(),
+                    request.gender(), request.dateOfBirth(), request.address(), request.phone(), request.profession(),
+                    "Standard", fare.concession());
+            try {
+                String seatNumber = BookingService.book(customer, fare.flightCode(), fare.seatClass(), seatPreference,
+                        fare.baseFare(), fare.discount(), fare.finalFare());
+                return new BookingConfirmation(pnr, fare.flightCode(), fare.seatClass(), seatNumber,
+                        request.travelDate(), fare);
+            } catch (SQLException e) {
+                if (e instanceof SQLiteException sqlite && sqlite.getResultCode() == SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE) {
+                    // A PNR we generated can clash with another process's; a supplied one is the caller's to change
+                    if (generated && attempt < MAX_PNR_ATTEMPTS) {
+                        pnr = PnrGenerator.next();
+                        continue;
+                    }
+                    throw new IllegalStateException("PNR " + pnr + " is already in use", e);
+                }
+                // Another booking took the last seat between the check above and the write
+                if (SeatInventory.availableSeats(flight, request.travelDate(), fare.seatClass()) <= 0) {
+                    throw new IllegalStateException("Sorry, no " + fare.seatClass() + " seats available on this flight.", e);
+                }
+                throw e;
+            }
+        }
+    }
+
+    public static ReservationDetails findBooking(String pnr) throws SQLException {
+        ReservationDetails reservation = pnr == null ? null : ReservationRepository.findByPnr(pnr.trim());
+        if (reservation == null) {
+            throw new IllegalArgumentException("No booking found with PNR: " + pnr);
+        }
+        return reservation;
+    }
+
+    // What cancelling the booking today would refund under the current refund bands
+    public static RefundQuote quoteRefund(String pnr) throws SQLException {
+        ReservationDetails reservation = findBooking(pnr);
+        if ("Cancelled".equals(reservation.status())) {
+            throw new IllegalStateException("This booking is already cancelled. No refund available.");
+        }
+        return new RefundQuote(reservation, quoteRefund(reservation));
+    }
+
+    public static RefundPolicy.Quote quoteRefund(ReservationDetails reservation) throws SQLException {
+        BigDecimal fare = reservation.finalFare() == null ? BigDecimal.ZERO : reservation.finalFare();
+        return RefundPolicy.current().quote(fare, reservation.travelDate(), LocalDate.now());
+    }
+
+    // Cancels the booking and records the refund it was quoted
+    public static RefundQuote cancel(CancellationRequest request) throws SQLException {
+        RefundQuote refund = quoteRefund(request.pnr());
+        ReservationDetails reservation = refund.reservation();
+        String reason = request.reason() == null || request.reason().isBlank() ? "Customer Request" : request.reason();
+
+        CancellationService.cancelBooking(reservation.pnr(), reservation.flightCode(), reservation.travelDate(),
+                reservation.seatClass(), reservation.seatNumber(), refund.quote(), reason, request.cancelledBy());
+        return refund;
+    }
+
+    private static Flight flight(String flightCode) throws SQLException {
+        Flight flight = flightCode == null ? null : FlightInventoryCache.getFlight(flightCode);
+        if (flight == null) {
+            throw new IllegalArgumentException("Unknown flight " + flightCode);
+        }
+        if (!flight.isActive()) {
+            throw new IllegalStateException("Flight " + flightCode + " is not active");
+        }
+        return flight;
+    }
+
+    private static String seatClass(String seatClass) {
+        if (!"Economy".equals(seatClass) && !"Business".equals(seatClass)) {
+            throw new IllegalArgumentException("Seat class must be Economy or Business");
+        }
+        return seatClass;
+    }
+
+    private static BigDecimal fare(Double fare, String seatClass) {
+        if (fare == null) {
+            return "Economy".equals(seatClass) ? DEFAULT_ECONOMY_FARE : DEFAULT_BUSINESS_FARE;
+        }
+        return BigDecimal.valueOf(fare).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static Map<String, BigDecimal> concessionRates() {
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        rates.put("None", BigDecimal.ZERO);
+        rates.put("Student", new BigDecimal("0.25"));
+        rates.put("Senior Citizen", new BigDecimal("0.13"));
+        rates.put("Cancer Patient", new BigDecimal("0.569"));
+        return rates;
+    }
+}
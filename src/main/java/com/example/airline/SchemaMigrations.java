@@ -0,0 +1,230 @@
+package com.example.airline;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Ordered schema changes applied on top of the base tables. Each migration runs once, in its own
+ * transaction, and is recorded in {@code schema_version}. Append new migrations to the end of the list.
+ */
+public final class SchemaMigrations {
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Secondary indexes for search, fare and reservation lookups",
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_flight_route
+                    ON flight_information (source_place, destination_place, is_active)
+                    """,
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_fare_flight_class
+                    ON fare (f_code, class_type)
+                    """,
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_reservations_flight_status
+                    ON reservations (f_code, status)
+                    """,
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_reservations_created
+                    ON reservations (created_at)
+                    """,
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_seat_allocation_flight_class
+                    ON seat_allocation (f_code, class_type)
+                    """,
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_seat_allocation_pnr
+                    ON seat_allocation (pnr_number)
+                    """),
+            new Migration(2, "Per-departure seat inventory keyed by travel date",
+                    // Older builds bound dates with setDate, which sqlite-jdbc stores as epoch milliseconds
+                    """
+                    UPDATE reservations SET travel_date = date(travel_date / 1000, 'unixepoch', 'localtime')
+                    WHERE typeof(travel_date) = 'integer'
+                    """,
+                    """
+                    UPDATE customer_details SET t_date = date(t_date / 1000, 'unixepoch', 'localtime')
+                    WHERE typeof(t_date) = 'integer'
+                    """,
+                    """
+                    UPDATE customer_details SET d_o_b = date(d_o_b / 1000, 'unixepoch', 'localtime')
+                    WHERE typeof(d_o_b) = 'integer'
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS departure_inventory (
+                        f_code VARCHAR(10) NOT NULL,
+                        travel_date DATE NOT NULL,
+                        class_type VARCHAR(20) NOT NULL,
+                        seats_booked INTEGER NOT NULL DEFAULT 0,
+                        PRIMARY KEY (f_code, travel_date, class_type),
+                        FOREIGN KEY (f_code) REFERENCES flight_information(f_code)
+                    ) WITHOUT ROWID
+                    """,
+                    """
+                    INSERT OR IGNORE INTO departure_inventory (f_code, travel_date, class_type, seats_booked)
+                    SELECT f_code, travel_date, class_type, COUNT(*) FROM reservations
+                    WHERE status = 'Confirmed' AND f_code IS NOT NULL AND travel_date IS NOT NULL
+                    GROUP BY f_code, travel_date, class_type
+                    """),
+            new Migration(3, "Seat allocations per departure date",
+                    """
+                    ALTER TABLE seat_allocation ADD COLUMN travel_date DATE
+                    """,
+                    """
+                    UPDATE seat_allocation SET travel_date =
+                        (SELECT r.travel_date FROM reservations r WHERE r.pnr_number = seat_allocation.pnr_number)
+                    WHERE pnr_number IS NOT NULL
+                    """,
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_seat_allocation_departure
+                    ON seat_allocation (f_code, travel_date, class_type, is_available)
+                    """),
+            new Migration(4, "Full-text reservation search",
+                    """
+                    CREATE VIRTUAL TABLE IF NOT EXISTS reservation_search USING fts5(
+                        pnr_number, cust_name, flight, route, status,
+                        tokenize = 'unicode61 remove_diacritics 2',
+                        prefix = '2 3'
+                    )
+                    """,
+                    // rowid is reservations.reservation_id
+                    """
+                    CREATE TRIGGER IF NOT EXISTS reservation_search_insert AFTER INSERT ON reservations
+                    BEGIN
+                        INSERT INTO reservation_search (rowid, pnr_number, cust_name, flight, route, status)
+                        SELECT NEW.reservation_id, NEW.pnr_number,
+                               (SELECT cust_name FROM customer_details WHERE pnr_number = NEW.pnr_number),
+                               NEW.f_code || ' ' || IFNULL(f_name, ''),
+                               IFNULL(source_place, '') || ' ' || IFNULL(destination_place, ''),
+                               NEW.status
+                        FROM (SELECT 1) LEFT JOIN flight_information ON f_code = NEW.f_code;
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER IF NOT EXISTS reservation_search_update
+                    AFTER UPDATE OF pnr_number, f_code, status ON reservations
+                    BEGIN
+                        DELETE FROM reservation_search WHERE rowid = OLD.reservation_id;
+                        INSERT INTO reservation_search (rowid, pnr_number, cust_name, flight, route, status)
+                        SELECT NEW.reservation_id, NEW.pnr_number,
+                               (SELECT cust_name FROM customer_details WHERE pnr_number = NEW.pnr_number),
+                               NEW.f_code || ' ' || IFNULL(f_name, ''),
+                               IFNULL(source_place, '') || ' ' || IFNULL(destination_place, ''),
+                               NEW.status
+                        FROM (SELECT 1) LEFT JOIN flight_information ON f_code = NEW.f_code;
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER IF NOT EXISTS reservation_search_delete AFTER DELETE ON reservations
+                    BEGIN
+                        DELETE FROM reservation_search WHERE rowid = OLD.reservation_id;
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER IF NOT EXISTS reservation_search_customer
+                    AFTER UPDATE OF cust_name ON customer_details
+                    WHEN NEW.cust_name IS NOT OLD.cust_name
+                    BEGIN
+                        UPDATE reservation_search SET cust_name = NEW.cust_name
+                        WHERE rowid IN (SELECT reservation_id FROM reservations WHERE pnr_number = NEW.pnr_number);
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER IF NOT EXISTS reservation_search_flight
+                    AFTER UPDATE OF f_name, source_place, destination_place ON flight_information
+                    WHEN NEW.f_name IS NOT OLD.f_name OR NEW.source_place IS NOT OLD.source_place
+                        OR NEW.destination_place IS NOT OLD.destination_place
+                    BEGIN
+                        UPDATE reservation_search
+                        SET flight = NEW.f_code || ' ' || IFNULL(NEW.f_name, ''),
+                            route = IFNULL(NEW.source_place, '') || ' ' || IFNULL(NEW.destination_place, '')
+                        WHERE rowid IN (SELECT reservation_id FROM reservations WHERE f_code = NEW.f_code);
+                    END
+                    """,
+                    """
+                    INSERT INTO reservation_search (rowid, pnr_number, cust_name, flight, route, status)
+                    SELECT r.reservation_id, r.pnr_number, c.cust_name,
+                           r.f_code || ' ' || IFNULL(f.f_name, ''),
+                           IFNULL(f.source_place, '') || ' ' || IFNULL(f.destination_place, ''),
+                           r.status
+                    FROM reservations r
+                    LEFT JOIN customer_details c ON r.pnr_number = c.pnr_number
+                    LEFT JOIN flight_information f ON r.f_code = f.f_code
+                    """),
+            new Migration(5, "Reservations by departure date for batch ticket runs",
+                    """
+                    CREATE INDEX IF NOT EXISTS idx_reservations_departure
+                    ON reservations (travel_date, f_code)
+                    """),
+            new Migration(6, "System settings key/value store",
+                    """
+                    CREATE TABLE IF NOT EXISTS system_settings (
+                        setting_key TEXT PRIMARY KEY,
+                        setting_value TEXT,
+                        updated_at DATETIME DEFAULT CURRENT_TIMESTAMP
+                    ) WITHOUT ROWID
+                    """)
+    );
+
+    private SchemaMigrations() {}
+
+    public static void migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    applied_at DATETIME DEFAULT CURRENT_TIMESTAMP
+                )
+                """);
+        }
+
+        int current = currentVersion(conn);
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version() > current) {
+                apply(conn, migration);
+                current = migration.version();
+            }
+        }
+    }
+
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : migration.statements()) {
+                    stmt.execute(sql);
+                }
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                pstmt.setInt(1, migration.version());
+                pstmt.setString(2, migration.description());
+                pstmt.executeUpdate();
+            }
+
+            conn.commit();
+            System.out.println("Applied schema migration " + migration.version() + ": " + migration.description());
+
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Schema migration " + migration.version() + " failed: " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private record Migration(int version, String description, String... statements) {}
+}
@@ -0,0 +1,107 @@
+package com.example.airline;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link SeatMap} per departure and class, built from seat_allocation the first time that
+ * departure is booked. seat_allocation stays the persisted form: callers insert or free the row in
+ * the same transaction that claims or releases the bit.
+ */
+public class SeatAllocator {
+
+    private static final String LOAD_SQL = """
+            SELECT seat_number FROM seat_allocation
+            WHERE f_code = ? AND travel_date = ? AND class_type = ? AND is_available = 0
+            """;
+
+    private static final Map<DepartureKey, SeatMap> seatMaps = new ConcurrentHashMap<>();
+
+    /**
+     * Claims a seat for the departure, loading its map through the caller's connection if needed.
+     * Returns the seat label. Throws if every seat is taken.
+     */
+    public static String allocate(Connection conn, Flight flight, LocalDate travelDate, String seatClass,
+                                  String preference) throws SQLException {
+        SeatMap seatMap = seatMap(conn, flight, travelDate.toString(), seatClass);
+        int seat = seatMap.allocate(preference);
+        if (seat < 0) {
+            throw new SQLException("No " + seatClass + " seats left to assign on flight " +
+                    flight.getFlightCode() + " for " + travelDate);
+        }
+        return seatMap.label(seat);
+    }
+
+    public static boolean isWindowSeat(String flightCode, LocalDate travelDate, String seatClass, String seatNumber) {
+        SeatMap seatMap = seatMaps.get(new DepartureKey(flightCode, travelDate.toString(), seatClass));
+        return seatMap != null && seatMap.isWindow(seatMap.indexOf(seatNumber));
+    }
+
+    /**
+     * Frees the seat in memory. Call after the transaction that freed the seat_allocation row
+     * commits, or when a booking holding the seat rolls back.
+     */
+    public static void release(String flightCode, String travelDate, String seatClass, String seatNumber) {
+        SeatMap seatMap = seatMaps.get(new DepartureKey(flightCode, travelDate, seatClass));
+        if (seatMap != null) {
+            seatMap.release(seatMap.indexOf(seatNumber));
+        }
+    }
+
+    // Drops every seat map, e.g. after the database is restored; each is rebuilt on its next booking
+    public static void clear() {
+        seatMaps.clear();
+    }
+
+    // Drops both class maps of one departure, e.g. after all of its bookings are cancelled
+    public static void clear(String flightCode, String travelDate) {
+        seatMaps.keySet().removeIf(key -> key.flightCode().equals(flightCode) && key.travelDate().equals(travelDate));
+    }
+
+    private static SeatMap seatMap(Connection conn, Flight flight, String travelDate, String seatClass) throws SQLException {
+        DepartureKey key = new DepartureKey(flight.getFlightCode(), travelDate, seatClass);
+        int capacity = capacity(flight, seatClass);
+
+        SeatMap current = seatMaps.get(key);
+        if (current != null && current.getCapacity() == capacity) {
+            return current;
+        }
+
+        synchronized (seatMaps) {
+            current = seatMaps.get(key);
+            if (current == null || current.getCapacity() != capacity) {
+                current = load(conn, key, capacity);
+                seatMaps.put(key, current);
+            }
+            return current;
+        }
+    }
+
+    private static SeatMap load(Connection conn, DepartureKey key, int capacity) throws SQLException {
+        SeatMap seatMap = new SeatMap(key.seatClass(), capacity);
+
+        try (PreparedStatement pstmt = conn.prepareStatement(LOAD_SQL)) {
+            pstmt.setString(1, key.flightCode());
+            pstmt.setString(2, key.travelDate());
+            pstmt.setString(3, key.seatClass());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    // Seat numbers from before the seat map (e.g. "E07") have no position and are skipped
+                    seatMap.claim(seatMap.indexOf(rs.getString("seat_number")));
+                }
+            }
+        }
+        return seatMap;
+    }
+
+    private static int capacity(Flight flight, String seatClass) {
+        return "Economy".equals(seatClass) ? flight.getEconomySeats() : flight.getBusinessSeats();
+    }
+
+    private record DepartureKey(String flightCode, String travelDate, String seatClass) {}
+}
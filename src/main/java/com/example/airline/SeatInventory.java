@@ -0,0 +1,216 @@
+package com.example.airline;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Seats booked per departure (flight, travel date, class). departure_inventory is the source of truth;
+ * this class mirrors its future rows in one int array per flight and class, indexed by days from the
+ * load date, so an availability check is a single array read. The first read on a new day loads the
+ * arrays again, so the index stays in step with {@link #isWithinHorizon}.
+ */
+public class SeatInventory {
+
+    public static final int HORIZON_DAYS = 366;
+
+    private static final String LOAD_SQL =
+            "SELECT f_code, travel_date, class_type, seats_booked FROM departure_inventory WHERE travel_date >= ?";
+
+    private static final String ENSURE_ROW_SQL =
+            "INSERT OR IGNORE INTO departure_inventory (f_code, travel_date, class_type, seats_booked) VALUES (?, ?, ?, 0)";
+
+    private static final String RESERVE_ECONOMY_SQL = """
+            UPDATE departure_inventory SET seats_booked = seats_booked + 1
+            WHERE f_code = ? AND travel_date = ? AND class_type = 'Economy'
+            AND seats_booked < (SELECT t_eco_seatno FROM flight_information WHERE f_code = ? AND is_active = 1)
+            """;
+
+    private static final String RESERVE_BUSINESS_SQL = """
+            UPDATE departure_inventory SET seats_booked = seats_booked + 1
+            WHERE f_code = ? AND travel_date = ? AND class_type = 'Business'
+            AND seats_booked < (SELECT t_exe_seatno FROM flight_information WHERE f_code = ? AND is_active = 1)
+            """;
+
+    private static final String RELEASE_SQL =
+            "UPDATE departure_inventory SET seats_booked = seats_booked - 1 " +
+            "WHERE f_code = ? AND travel_date = ? AND class_type = ? AND seats_booked > 0";
+
+    private static volatile Snapshot snapshot = null;
+
+    public static int bookedSeats(String flightCode, LocalDate travelDate, String seatClass) throws SQLException {
+        Snapshot current = snapshot();
+        int day = current.dayIndex(travelDate);
+        if (day < 0) {
+            return 0;
+        }
+        AtomicIntegerArray booked = current.counters(seatClass).get(flightCode);
+        return booked == null ? 0 : booked.get(day);
+    }
+
+    public static int availableSeats(Flight flight, LocalDate travelDate, String seatClass) throws SQLException {
+        int capacity = "Economy".equals(seatClass) ? flight.getEconomySeats() : flight.getBusinessSeats();
+        return Math.max(0, capacity - bookedSeats(flight.getFlightCode(), travelDate, seatClass));
+    }
+
+    public static boolean isWithinHorizon(LocalDate travelDate) {
+        long day = travelDate.toEpochDay() - LocalDate.now().toEpochDay();
+        return day >= 0 && day < HORIZON_DAYS;
+    }
+
+    /**
+     * Takes one seat on the departure inside the caller's transaction. Throws if the class is full.
+     */
+    public static void reserve(Connection conn, String flightCode, LocalDate travelDate, String seatClass) throws SQLException {
+        if (!isWithinHorizon(travelDate)) {
+            throw new SQLException("Travel date " + travelDate + " is outside the " + HORIZON_DAYS + "-day sales horizon");
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(ENSURE_ROW_SQL)) {
+            pstmt.setString(1, flightCode);
+            pstmt.setString(2, travelDate.toString());
+            pstmt.setString(3, seatClass);
+            pstmt.executeUpdate();
+        }
+
+        String sql = "Economy".equals(seatClass) ? RESERVE_ECONOMY_SQL : RESERVE_BUSINESS_SQL;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, flightCode);
+            pstmt.setString(2, travelDate.toString());
+            pstmt.setString(3, flightCode);
+            if (pstmt.executeUpdate() == 0) {
+                throw new SQLException("No " + seatClass + " seats available on flight " + flightCode + " for " + travelDate);
+            }
+        }
+    }
+
+    /**
+     * Gives one seat back on the departure inside the caller's transaction.
+     */
+    public static void release(Connection conn, String flightCode, String travelDate, String seatClass) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(RELEASE_SQL)) {
+            pstmt.setString(1, flightCode);
+            pstmt.setString(2, travelDate);
+            pstmt.setString(3, seatClass);
+            pstmt.executeUpdate();
+        }
+    }
+
+    public static void recordBooking(String flightCode, LocalDate travelDate, String seatClass) {
+        adjust(flightCode, travelDate, seatClass, 1);
+    }
+
+    public static void recordCancellation(String flightCode, String travelDate, String seatClass) {
+        try {
+            adjust(flightCode, LocalDate.parse(travelDate), seatClass, -1);
+        } catch (DateTimeParseException e) {
+            System.err.println("Unrecognised travel date '" + travelDate + "' for " + flightCode);
+        }
+    }
+
+    // Every booking on the departure was cancelled in one go
+    public static void clearDeparture(String flightCode, LocalDate travelDate) {
+        Snapshot current = snapshot;
+        if (current == null || current.isStale()) {
+            return;
+        }
+        int day = current.dayIndex(travelDate);
+        if (day < 0) {
+            return;
+        }
+
+        for (AtomicIntegerArray booked : new AtomicIntegerArray[] {
+                current.economy().get(flightCode), current.business().get(flightCode)}) {
+            if (booked != null) {
+                booked.set(day, 0);
+            }
+        }
+    }
+
+    // A missing or stale snapshot is skipped: the next read loads the committed rows
+    private static void adjust(String flightCode, LocalDate travelDate, String seatClass, int delta) {
+        Snapshot current = snapshot;
+        if (current == null || current.isStale()) {
+            return;
+        }
+        int day = current.dayIndex(travelDate);
+        if (day < 0) {
+            return;
+        }
+
+        AtomicIntegerArray booked = current.counters(seatClass)
+                .computeIfAbsent(flightCode, key -> new AtomicIntegerArray(HORIZON_DAYS));
+        booked.updateAndGet(day, value -> Math.max(0, value + delta));
+    }
+
+    public static synchronized void reload() throws SQLException {
+        LocalDate base = LocalDate.now();
+        Snapshot loaded = new Snapshot(base.toEpochDay());
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(LOAD_SQL)) {
+
+            pstmt.setString(1, base.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int day;
+                    try {
+                        day = loaded.dayIndex(LocalDate.parse(rs.getString("travel_date")));
+                    } catch (DateTimeParseException e) {
+                        continue;
+                    }
+                    if (day < 0) {
+                        continue;
+                    }
+                    loaded.counters(rs.getString("class_type"))
+                            .computeIfAbsent(rs.getString("f_code"), key -> new AtomicIntegerArray(HORIZON_DAYS))
+                            .set(day, rs.getInt("seats_booked"));
+                }
+            }
+        }
+
+        snapshot = loaded;
+    }
+
+    private static Snapshot snapshot() throws SQLException {
+        Snapshot current = snapshot;
+        if (current == null || current.isStale()) {
+            synchronized (SeatInventory.class) {
+                if (snapshot == null || snapshot.isStale()) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private record Snapshot(long baseEpochDay,
+                            Map<String, AtomicIntegerArray> economy,
+                            Map<String, AtomicIntegerArray> business) {
+
+        Snapshot(long baseEpochDay) {
+            this(baseEpochDay, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+
+        // Loaded on an earlier day: every index is off by the days since
+        boolean isStale() {
+            return baseEpochDay != LocalDate.now().toEpochDay();
+        }
+
+        int dayIndex(LocalDate date) {
+            long day = date.toEpochDay() - baseEpochDay;
+            return day < 0 || day >= HORIZON_DAYS ? -1 : (int) day;
+        }
+
+        Map<String, AtomicIntegerArray> counters(String seatClass) {
+            return "Economy".equals(seatClass) ? economy : business;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.airline;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Occupancy of one departure and class as a bitset, one bit per seat. Seats are laid out row by row
+ * (A-F in economy, A-D in business) and precomputed window and aisle masks let a preference be
+ * matched a word at a time. Claims and releases are compare-and-set on the word, so concurrent
+ * bookings never take a lock and never get the same seat.
+ */
+public final class SeatMap {
+
+    private static final String ECONOMY_LETTERS = "ABCDEF";
+    private static final String BUSINESS_LETTERS = "ABCD";
+
+    private final String prefix;
+    private final String letters;
+    private final int capacity;
+    private final AtomicLongArray occupied;
+    private final long[] validMask;
+    private final long[] windowMask;
+    private final long[] aisleMask;
+
+    public SeatMap(String seatClass, int capacity) {
+        boolean economy = "Economy".equals(seatClass);
+        this.prefix = economy ? "E" : "B";
+        this.letters = economy ? ECONOMY_LETTERS : BUSINESS_LETTERS;
+        this.capacity = Math.max(0, capacity);
+
+        int words = (this.capacity + 63) / 64;
+        this.occupied = new AtomicLongArray(words);
+        this.validMask = new long[words];
+        this.windowMask = new long[words];
+        this.aisleMask = new long[words];
+
+        int perRow = letters.length();
+        for (int seat = 0; seat < this.capacity; seat++) {
+            long bit = 1L << seat;
+            int column = seat % perRow;
+            validMask[seat >>> 6] |= bit;
+            if (column == 0 || column == perRow - 1) {
+                windowMask[seat >>> 6] |= bit;
+            }
+            if (column == perRow / 2 - 1 || column == perRow / 2) {
+                aisleMask[seat >>> 6] |= bit;
+            }
+        }
+    }
+
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Claims the first free seat matching the preference ("Window", "Aisle" or anything else for no
+     * preference), falling back to any free seat. Returns the seat index, or -1 when the map is full.
+     */
+    public int allocate(String preference) {
+        long[] preferred = "Window".equals(preference) ? windowMask : "Aisle".equals(preference) ? aisleMask : null;
+        if (preferred != null) {
+            int seat = claimFirst(preferred);
+            if (seat >= 0) {
+                return seat;
+            }
+        }
+        return claimFirst(validMask);
+    }
+
+    private int claimFirst(long[] mask) {
+        for (int word = 0; word < mask.length; word++) {
+            while (true) {
+                long current = occupied.get(word);
+                long free = ~current & mask[word];
+                if (free == 0) {
+                    break;
+                }
+                long bit = Long.lowestOneBit(free);
+                if (occupied.compareAndSet(word, current, current | bit)) {
+                    return (word << 6) + Long.numberOfTrailingZeros(bit);
+                }
+            }
+        }
+        return -1;
+    }
+
+    public boolean claim(int seat) {
+        if (seat < 0 || seat >= capacity) {
+            return false;
+        }
+        int word = seat >>> 6;
+        long bit = 1L << seat;
+        while (true) {
+            long current = occupied.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (occupied.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(int seat) {
+        if (seat < 0 || seat >= capacity) {
+            return;
+        }
+        int word = seat >>> 6;
+        long bit = 1L << seat;
+        while (true) {
+            long current = occupied.get(word);
+            if ((current & bit) == 0 || occupied.compareAndSet(word, current, current & ~bit)) {
+                return;
+            }
+        }
+    }
+
+    public boolean isOccupied(int seat) {
+        return seat >= 0 && seat < capacity && (occupied.get(seat >>> 6) & (1L << seat)) != 0;
+    }
+
+    public boolean isWindow(int seat) {
+        return seat >= 0 && seat < capacity && (windowMask[seat >>> 6] & (1L << seat)) != 0;
+    }
+
+    public int countOccupied() {
+        int count = 0;
+        for (int word = 0; word < occupied.length(); word++) {
+            count += Long.bitCount(occupied.get(word));
+        }
+        return count;
+    }
+
+    // Seat labels look like "E14C": class prefix, two-digit row, seat letter
+    public String label(int seat) {
+        int perRow = letters.length();
+        return prefix + String.format("%02d", seat / perRow + 1) + letters.charAt(seat % perRow);
+    }
+
+    public int indexOf(String label) {
+        if (label == null || label.length() < 3 || !label.startsWith(prefix)) {
+            return -1;
+        }
+        int column = letters.indexOf(label.charAt(label.length() - 1));
+        if (column < 0) {
+            return -1;
+        }
+        try {
+            int row = Integer.parseInt(label.substring(prefix.length(), label.length() - 1));
+            int seat = (row - 1) * letters.length() + column;
+            return row >= 1 && seat < capacity ? seat : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.airline;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * System settings from the system_settings table, read once into an immutable snapshot. Lookups
+ * read a volatile reference and never lock or touch the database; a save writes the changed keys,
+ * swaps in a new snapshot and then tells listeners what changed. Keys missing from the table fall
+ * back to {@link #DEFAULTS}.
+ */
+public class SettingsStore {
+
+    public static final String AIRLINE_NAME = "airline_name";
+    public static final String CONTACT_EMAIL = "contact_email";
+    public static final String CONTACT_PHONE = "contact_phone";
+    public static final String WEBSITE = "website";
+    public static final String ADDRESS = "address";
+    public static final String MAX_SEATS = "max_seats";
+    public static final String CANCELLATION_HOURS = "cancellation_hours";
+    public static final String TAX_RATE = "tax_rate";
+    public static final String REFUND_BANDS = "refund_bands";
+    public static final String ONLINE_CHECKIN = "online_checking";
+    public static final String EMAIL_NOTIFICATIONS = "email_notifications";
+    public static final String MAINTENANCE_MODE = "maintenance_mode";
+
+    public static final Map<String, String> DEFAULTS = defaultValues();
+
+    private static final String LOAD_SQL = "SELECT setting_key, setting_value FROM system_settings";
+
+    private static final String SAVE_SQL = """
+            INSERT INTO system_settings (setting_key, setting_value, updated_at)
+            VALUES (?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT (setting_key) DO UPDATE
+            SET setting_value = excluded.setting_value, updated_at = excluded.updated_at
+            """;
+
+    private static volatile Settings current = null;
+    private static final List<Consumer<SettingsChange>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Immutable view of every setting. Typed getters fall back to the default when a stored value
+     * does not parse.
+     */
+    public static final class Settings {
+        private final Map<String, String> values;
+
+        private Settings(Map<String, String> values) {
+            this.values = Collections.unmodifiableMap(values);
+        }
+
+        public String getString(String key) {
+            String value = values.get(key);
+            return value != null ? value : DEFAULTS.get(key);
+        }
+
+        public int getInt(String key) {
+            try {
+                return Integer.parseInt(getString(key).trim());
+            } catch (RuntimeException e) {
+                return Integer.parseInt(DEFAULTS.get(key));
+            }
+        }
+
+        public double getDouble(String key) {
+            try {
+                return Double.parseDouble(getString(key).trim());
+            } catch (RuntimeException e) {
+                return Double.parseDouble(DEFAULTS.get(key));
+            }
+        }
+
+        // Accepts "true"/"false" as well as the 1/0 written by JDBC setBoolean
+        public boolean getBoolean(String key) {
+            String value = getString(key);
+            return value != null && ("true".equalsIgnoreCase(value.trim()) || "1".equals(value.trim()));
+        }
+
+        public Map<String, String> asMap() {
+            return values;
+        }
+    }
+
+    public record SettingsChange(Settings previous, Settings current, Set<String> changedKeys) {
+        public boolean changed(String key) {
+            return changedKeys.contains(key);
+        }
+    }
+
+    public static Settings get() throws SQLException {
+        Settings settings = current;
+        if (settings == null) {
+            synchronized (SettingsStore.class) {
+                if (current == null) {
+                    current = load();
+                }
+                settings = current;
+            }
+        }
+        return settings;
+    }
+
+    public static Settings defaults() {
+        return new Settings(new HashMap<>(DEFAULTS));
+    }
+
+    /**
+     * Writes the given values in one transaction and publishes the new snapshot. Listeners are
+     * called on the saving thread, and only when at least one value actually changed.
+     */
+    public static void save(Map<String, String> updates) throws SQLException {
+        SettingsChange change;
+
+        synchronized (SettingsStore.class) {
+            Settings previous = get();
+            Map<String, String> changed = updates.entrySet().stream()
+                    .filter(entry -> !Objects.equals(previous.getString(entry.getKey()), entry.getValue()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            if (changed.isEmpty()) {
+                return;
+            }
+
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement pstmt = conn.prepareStatement(SAVE_SQL)) {
+                    for (Map.Entry<String, String> entry : changed.entrySet()) {
+                        pstmt.setString(1, entry.getKey());
+                        pstmt.setString(2, entry.getValue());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+
+            Map<String, String> merged = new HashMap<>(previous.asMap());
+            merged.putAll(changed);
+            Settings next = new Settings(merged);
+            current = next;
+            change = new SettingsChange(previous, next, Collections.unmodifiableSet(changed.keySet()));
+        }
+
+        for (Consumer<SettingsChange> listener : listeners) {
+            try {
+                listener.accept(change);
+            } catch (RuntimeException e) {
+                System.err.println("Settings listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    public static synchronized void reload() throws SQLException {
+        current = load();
+    }
+
+    public static void addListener(Consumer<SettingsChange> listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Consumer<SettingsChange> listener) {
+        listeners.remove(listener);
+    }
+
+    private static Map<String, String> defaultValues() {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put(AIRLINE_NAME, "Skyline Airways");
+        defaults.put(CONTACT_EMAIL, "info@skylineairways.com");
+        defaults.put(CONTACT_PHONE, "+1-555-0123");
+        defaults.put(WEBSITE, "www.skylineairways.com");
+        defaults.put(ADDRESS, "123 Airport Road\nAviation City, AC 12345");
+        defaults.put(MAX_SEATS, "150");
+        defaults.put(CANCELLATION_HOURS, "24");
+        defaults.put(TAX_RATE, "5.0");
+        defaults.put(REFUND_BANDS, RefundPolicy.DEFAULT_BANDS);
+        defaults.put(ONLINE_CHECKIN, "true");
+        defaults.put(EMAIL_NOTIFICATIONS, "true");
+        defaults.put(MAINTENANCE_MODE, "false");
+        return Collections.unmodifiableMap(defaults);
+    }
+
+    private static Settings load() throws SQLException {
+        Map<String, String> loaded = new HashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(LOAD_SQL)) {
+            while (rs.next()) {
+                loaded.put(rs.getString(1), rs.getString(2));
+            }
+        }
+        return new Settings(loaded);
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.airline;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Least-recently-used prepared statements for one pooled connection, keyed by SQL text. Callers get
+ * a wrapper whose {@code close()} resets the statement and keeps it for the next caller instead of
+ * finalizing it, so SQLite parses and plans each SQL string once per connection. If the same SQL is
+ * already open on the connection, the second caller gets an uncached statement that is closed for
+ * real. Only used by the thread holding the connection's lease.
+ */
+final class StatementCache {
+
+    private final Connection physical;
+    private final int capacity;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final Map<String, Entry> entries;
+    private final List<Handle> open = new ArrayList<>();
+
+    StatementCache(Connection physical, int capacity, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= StatementCache.this.capacity) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached statement for sql, preparing it on a miss. owner is the connection the
+     * caller holds, returned from {@code getConnection()} so the physical connection never leaks.
+     */
+    PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        Entry entry = entries.get(sql);
+        if (entry != null && entry.handle == null) {
+            if (!entry.statement.isClosed()) {
+                hits.increment();
+                return entry.checkOut(owner);
+            }
+            entries.remove(sql);
+            entry = null;
+        }
+
+        misses.increment();
+        PreparedStatement statement = physical.prepareStatement(sql);
+        if (entry != null || capacity == 0) {
+            // Already open further up the caller's stack; this one is closed for real
+            return uncached(statement, owner);
+        }
+        entry = new Entry(statement);
+        entries.put(sql, entry);
+        return entry.checkOut(owner);
+    }
+
+    /**
+     * Wraps a statement that is not cached so that {@code getConnection()} returns owner, never the
+     * physical connection a caller could close. Everything else, close included, goes straight through.
+     */
+    static PreparedStatement uncached(PreparedStatement statement, Connection owner) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getConnection":
+                            return owner;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    // Called when the lease ends: statements the borrower left open are reset and kept
+    void checkInAll() {
+        for (Handle handle : List.copyOf(open)) {
+            handle.release();
+        }
+    }
+
+    void closeAll() {
+        checkInAll();
+        for (Entry entry : entries.values()) {
+            closeQuietly(entry.statement);
+        }
+        entries.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+
+    private final class Entry {
+        private final PreparedStatement statement;
+        private Handle handle;
+        private boolean evicted;
+
+        private Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement checkOut(Connection owner) {
+            handle = new Handle(this, owner);
+            open.add(handle);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    handle);
+        }
+
+        private void checkIn(ResultSet resultSet) {
+            handle = null;
+            try {
+                // An open result set keeps SQLite's read snapshot; closing it resets the statement
+                if (resultSet != null && !resultSet.isClosed()) {
+                    resultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                entries.values().remove(this);
+                evicted = true;
+            }
+            if (evicted) {
+                closeQuietly(statement);
+            }
+        }
+
+        private void evict() {
+            evictions.increment();
+            evicted = true;
+            if (handle == null) {
+                closeQuietly(statement);
+            }
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private Entry entry;
+        private final Connection owner;
+        private ResultSet resultSet;
+
+        private Handle(Entry entry, Connection owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release();
+                    return null;
+                case "isClosed":
+                    return entry == null;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + (entry == null ? "closed" : entry.statement) + "]";
+                default:
+                    break;
+            }
+
+            if (entry == null) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                Object result = method.invoke(entry.statement, args);
+                if (result instanceof ResultSet rs) {
+                    resultSet = rs;
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void release() {
+            if (entry != null) {
+                Entry returning = entry;
+                entry = null;
+                open.remove(this);
+                returning.checkIn(resultSet);
+            }
+        }
+    }
+}
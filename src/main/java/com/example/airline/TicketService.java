@@ -0,0 +1,383 @@
+package com.example.airline;
+
+import javafx.concurrent.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders e-tickets as text and HTML from templates compiled once at class load. Rendering runs on
+ * its own pool sized to the CPU count, and files are written from encoded buffers through file
+ * channels. A batch run renders every booking on a flight and/or departure date range, either into
+ * a directory or streamed into a single ZIP.
+ */
+public class TicketService {
+
+    public static final Path TICKETS_DIR = Paths.get("tickets");
+
+    private static final int CHUNK_SIZE = 256;
+    private static final int ZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static final DateTimeFormatter GENERATED_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter FILE_STAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private static final List<String> FIELDS = List.of(
+            "pnr", "passenger", "flight", "route", "date", "departure", "arrival",
+            "class", "seat", "fare", "status", "generated");
+
+    private static final TicketTemplate TEXT_TEMPLATE = TicketTemplate.compile("""
+            ╔══════════════════════════════════════════════════════════════════╗
+            ║                      AIRLINE E-TICKET                           ║
+            ╠══════════════════════════════════════════════════════════════════╣
+            ║  PNR NUMBER: ${pnr:45} ║
+            ║  PASSENGER: ${passenger:47} ║
+            ║  FLIGHT: ${flight:49} ║
+            ║  ROUTE: ${route:50} ║
+            ║  DATE: ${date:12} DEPARTURE: ${departure:8} ARRIVAL: ${arrival:8} ║
+            ║  CLASS: ${class:10} SEAT: ${seat:12} FARE: ${fare:12} ║
+            ║  STATUS: ${status:47} ║
+            ╠══════════════════════════════════════════════════════════════════╣
+            ║  BOARDING TIME: 45 minutes before departure                     ║
+            ║  GATE: To be announced                                          ║
+            ║  TERMINAL: Main Terminal                                        ║
+            ╠══════════════════════════════════════════════════════════════════╣
+            ║               THANK YOU FOR CHOOSING OUR AIRLINE!               ║
+            ║                 HAVE A SAFE AND PLEASANT JOURNEY!               ║
+            ╚══════════════════════════════════════════════════════════════════╝
+
+            Generated on: ${generated}
+            """, FIELDS, value -> value);
+
+    private static final TicketTemplate HTML_TEMPLATE = TicketTemplate.compile("""
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <title>E-Ticket - ${pnr}</title>
+                <style>
+                    body { font-family: Arial, sans-serif; margin: 20px; }
+                    .ticket { border: 2px solid #333; padding: 20px; max-width: 600px; margin: 0 auto; }
+                    .header { text-align: center; background: #2c3e50; color: white; padding: 10px; margin: -20px -20px 20px -20px; }
+                    .section { margin: 15px 0; padding: 10px; border-bottom: 1px solid #ddd; }
+                    .label { font-weight: bold; color: #2c3e50; }
+                    .value { margin-left: 10px; }
+                    .footer { text-align: center; margin-top: 20px; padding: 10px; background: #ecf0f1; }
+                    .barcode { text-align: center; margin: 20px 0; font-family: 'Libre Barcode 128', monospace; font-size: 24px; }
+                </style>
+            </head>
+            <body>
+                <div class="ticket">
+                    <div class="header">
+                        <h1>ELECTRONIC TICKET</h1>
+                        <h2>BOARDING PASS</h2>
+                    </div>
+
+                    <div class="section">
+                        <div><span class="label">PNR:</span><span class="value">${pnr}</span></div>
+                        <div><span class="label">Passenger:</span><span class="value">${passenger}</span></div>
+                    </div>
+
+                    <div class="section">
+                        <div><span class="label">Flight:</span><span class="value">${flight}</span></div>
+                        <div><span class="label">Route:</span><span class="value">${route}</span></div>
+                        <div><span class="label">Date:</span><span class="value">${date}</span></div>
+                        <div><span class="label">Time:</span><span class="value">${departure} - ${arrival}</span></div>
+                    </div>
+
+                    <div class="section">
+                        <div><span class="label">Class:</span><span class="value">${class}</span></div>
+                        <div><span class="label">Seat:</span><span class="value">${seat}</span></div>
+                        <div><span class="label">Fare:</span><span class="value">${fare}</span></div>
+                        <div><span class="label">Status:</span><span class="value">${status}</span></div>
+                    </div>
+
+                    <div class="barcode">
+                        *${pnr}*  <!-- Simulated barcode -->
+                    </div>
+
+                    <div class="footer">
+                        <p><strong>Boarding Time:</strong> 45 minutes before departure</p>
+                        <p><strong>Gate:</strong> To be announced | <strong>Terminal:</strong> Main</p>
+                        <p><em>Thank you for choosing our airline! Have a safe journey!</em></p>
+                        <p>Generated on: ${generated}</p>
+                    </div>
+                </div>
+            </body>
+            </html>
+            """, FIELDS, TicketService::escapeHtml);
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final ExecutorService renderPool = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+                Thread thread = new Thread(runnable, "ticket-render-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    // Builders are reused per render thread; a ticket is a few kilobytes
+    private static final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    public record Ticket(String pnr, String passenger, String flight, String route, String travelDate,
+                         String departureTime, String arrivalTime, String seatClass, String seatNumber,
+                         String fare, String status) {
+
+        private String[] values(String generated) {
+            return new String[] {pnr, passenger, flight, route, travelDate, departureTime, arrivalTime,
+                    seatClass, seatNumber, fare, status, generated};
+        }
+    }
+
+    public record TicketFiles(Path text, Path html) {}
+
+    /**
+     * Bookings to print: every non-cancelled booking departing between from and to (inclusive),
+     * optionally limited to one flight. With zip set, all tickets go into one archive.
+     */
+    public record BatchRequest(String flightCode, LocalDate from, LocalDate to, boolean zip) {}
+
+    public record BatchResult(int tickets, Path output) {}
+
+    private record RenderedTicket(String pnr, ByteBuffer text, ByteBuffer html) {}
+
+    public static String renderText(Ticket ticket) {
+        StringBuilder out = new StringBuilder(4096);
+        TEXT_TEMPLATE.render(ticket.values(LocalDateTime.now().format(GENERATED_FORMAT)), out);
+        return out.toString();
+    }
+
+    /**
+     * Writes the text and HTML ticket for one booking into tickets/ on the render pool.
+     * Callbacks run on the FX thread.
+     */
+    public static Task<TicketFiles> print(Ticket ticket, Consumer<TicketFiles> onSuccess, Consumer<Throwable> onFailure) {
+        Task<TicketFiles> task = new Task<>() {
+            @Override
+            protected TicketFiles call() throws Exception {
+                Files.createDirectories(TICKETS_DIR);
+                LocalDateTime now = LocalDateTime.now();
+                RenderedTicket rendered = render(ticket, now.format(GENERATED_FORMAT));
+
+                String filename = "ticket_" + ticket.pnr() + "_" + now.format(FILE_STAMP_FORMAT);
+                Path text = TICKETS_DIR.resolve(filename + ".txt");
+                Path html = TICKETS_DIR.resolve(filename + ".html");
+                write(text, rendered.text());
+                write(html, rendered.html());
+                return new TicketFiles(text, html);
+            }
+        };
+        task.setOnSucceeded(event -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(event -> onFailure.accept(task.getException()));
+        renderPool.execute(task);
+        return task;
+    }
+
+    /**
+     * Prints every ticket matching the request. Bookings are read on the data-access executor,
+     * rendered in chunks across the render pool and written in PNR order as each chunk completes.
+     * The task reports progress per chunk and can be cancelled between chunks; a cancelled or
+     * failed ZIP is deleted rather than left truncated.
+     */
+    public static Task<BatchResult> printBatch(BatchRequest request, Consumer<BatchResult> onSuccess,
+                                               Consumer<Throwable> onFailure) {
+        Task<BatchResult> task = new Task<>() {
+            @Override
+            protected BatchResult call() throws Exception {
+                updateMessage("Reading bookings...");
+                List<Ticket> tickets = loadBatch(request);
+
+                String generated = LocalDateTime.now().format(GENERATED_FORMAT);
+                String batchName = "batch_" + LocalDateTime.now().format(FILE_STAMP_FORMAT);
+                Files.createDirectories(TICKETS_DIR);
+
+                Path output = request.zip()
+                        ? TICKETS_DIR.resolve(batchName + ".zip")
+                        : Files.createDirectories(TICKETS_DIR.resolve(batchName));
+
+                try (TicketSink sink = request.zip() ? new ZipSink(output) : new DirectorySink(output)) {
+                    for (int from = 0; from < tickets.size(); from += CHUNK_SIZE) {
+                        if (isCancelled()) {
+                            break;
+                        }
+                        List<Ticket> chunk = tickets.subList(from, Math.min(from + CHUNK_SIZE, tickets.size()));
+                        for (RenderedTicket rendered : renderChunk(chunk, generated)) {
+                            sink.write(rendered);
+                        }
+                        updateProgress(from + chunk.size(), tickets.size());
+                        updateMessage("Printed " + (from + chunk.size()) + " of " + tickets.size() + " tickets");
+                    }
+                } catch (Exception e) {
+                    if (request.zip()) {
+                        Files.deleteIfExists(output);
+                    }
+                    throw e;
+                }
+
+                if (isCancelled() && request.zip()) {
+                    Files.deleteIfExists(output);
+                }
+                return new BatchResult(tickets.size(), output);
+            }
+        };
+        task.setOnSucceeded(event -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(event -> onFailure.accept(task.getException()));
+        DataAccessExecutor.execute(task);
+        return task;
+    }
+
+    public static void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    private static List<Ticket> loadBatch(BatchRequest request) throws SQLException {
+        List<Ticket> tickets = new ArrayList<>();
+        ReservationRepository.findLive(request.from(), request.to(), request.flightCode(),
+                details -> tickets.add(new Ticket(
+                        details.pnr(),
+                        details.passenger(),
+                        details.flight(),
+                        details.route(" → "),
+                        details.travelDate(),
+                        details.departureTime(),
+                        details.arrivalTime(),
+                        details.seatClass(),
+                        details.seatNumber(),
+                        String.format("M%.2f", details.finalFare() == null ? 0.0 : details.finalFare().doubleValue()),
+                        details.status()
+                )));
+        return tickets;
+    }
+
+    private static List<RenderedTicket> renderChunk(List<Ticket> chunk, String generated) throws Exception {
+        List<Callable<RenderedTicket>> jobs = new ArrayList<>(chunk.size());
+        for (Ticket ticket : chunk) {
+            jobs.add(() -> render(ticket, generated));
+        }
+
+        List<RenderedTicket> rendered = new ArrayList<>(chunk.size());
+        for (Future<RenderedTicket> future : renderPool.invokeAll(jobs)) {
+            rendered.add(future.get());
+        }
+        return rendered;
+    }
+
+    private static RenderedTicket render(Ticket ticket, String generated) {
+        String[] values = ticket.values(generated);
+        return new RenderedTicket(ticket.pnr(), encode(TEXT_TEMPLATE, values), encode(HTML_TEMPLATE, values));
+    }
+
+    private static ByteBuffer encode(TicketTemplate template, String[] values) {
+        StringBuilder out = buffers.get();
+        out.setLength(0);
+        template.render(values, out);
+        return StandardCharsets.UTF_8.encode(CharBuffer.wrap(out));
+    }
+
+    private static void write(Path path, ByteBuffer content) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        }
+    }
+
+    private static String escapeHtml(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                default -> null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    private interface TicketSink extends AutoCloseable {
+        void write(RenderedTicket ticket) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static class DirectorySink implements TicketSink {
+        private final Path directory;
+
+        DirectorySink(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public void write(RenderedTicket ticket) throws IOException {
+            TicketService.write(directory.resolve("ticket_" + ticket.pnr() + ".txt"), ticket.text());
+            TicketService.write(directory.resolve("ticket_" + ticket.pnr() + ".html"), ticket.html());
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private static class ZipSink implements TicketSink {
+        private final ZipOutputStream zip;
+
+        ZipSink(Path file) throws IOException {
+            OutputStream out = Channels.newOutputStream(FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+            this.zip = new ZipOutputStream(new BufferedOutputStream(out, ZIP_BUFFER_SIZE));
+        }
+
+        @Override
+        public void write(RenderedTicket ticket) throws IOException {
+            writeEntry("ticket_" + ticket.pnr() + ".txt", ticket.text());
+            writeEntry("ticket_" + ticket.pnr() + ".html", ticket.html());
+        }
+
+        private void writeEntry(String name, ByteBuffer content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+            zip.closeEntry();
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+}
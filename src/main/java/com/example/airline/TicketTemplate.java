@@ -0,0 +1,77 @@
+package com.example.airline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * A ticket layout parsed once into literal text and field slots. Placeholders are written
+ * {@code ${field}} or {@code ${field:width}}, the latter left-aligned and space-padded like
+ * {@code %-widths}. Rendering is a straight walk over the slots with no format parsing.
+ */
+final class TicketTemplate {
+
+    private final String[] literals;
+    private final int[] fields;
+    private final int[] widths;
+    private final UnaryOperator<String> escaper;
+
+    private TicketTemplate(String[] literals, int[] fields, int[] widths, UnaryOperator<String> escaper) {
+        this.literals = literals;
+        this.fields = fields;
+        this.widths = widths;
+        this.escaper = escaper;
+    }
+
+    static TicketTemplate compile(String source, List<String> fieldNames, UnaryOperator<String> escaper) {
+        List<String> literals = new ArrayList<>();
+        List<int[]> slots = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int start = source.indexOf("${", position);
+            if (start < 0) {
+                break;
+            }
+            int end = source.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at " + start);
+            }
+
+            String placeholder = source.substring(start + 2, end);
+            int colon = placeholder.indexOf(':');
+            String name = colon < 0 ? placeholder : placeholder.substring(0, colon);
+            int width = colon < 0 ? 0 : Integer.parseInt(placeholder.substring(colon + 1));
+            int field = fieldNames.indexOf(name);
+            if (field < 0) {
+                throw new IllegalArgumentException("Unknown ticket field: " + name);
+            }
+
+            literals.add(source.substring(position, start));
+            slots.add(new int[] {field, width});
+            position = end + 1;
+        }
+        literals.add(source.substring(position));
+
+        int[] fields = new int[slots.size()];
+        int[] widths = new int[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            fields[i] = slots.get(i)[0];
+            widths[i] = slots.get(i)[1];
+        }
+        return new TicketTemplate(literals.toArray(new String[0]), fields, widths, escaper);
+    }
+
+    void render(String[] values, StringBuilder out) {
+        for (int i = 0; i < fields.length; i++) {
+            out.append(literals[i]);
+            String value = values[fields[i]];
+            value = escaper.apply(value != null ? value : "");
+            out.append(value);
+            for (int pad = widths[i] - value.length(); pad > 0; pad--) {
+                out.append(' ');
+            }
+        }
+        out.append(literals[fields.length]);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.airline;
 
+import java.time.LocalDateTime;
+
 public class User {
     private int userId;
     private String username;
@@ -8,6 +10,7 @@ public class User {
     private String fullName;
     private String email;
     private boolean isActive;
+    private LocalDateTime createdAt;
 
     public User() {}
 
@@ -18,6 +21,7 @@ public class User {
         this.fullName = fullName;
         this.email = email;
         this.isActive = true;
+        this.createdAt = LocalDateTime.now();
     }
 
     public int getUserId() { return userId; }
@@ -41,6 +45,12 @@ public class User {
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
 
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    // Shown in the user management table
+    public String getStatus() { return isActive ? "Active" : "Inactive"; }
+
     public boolean isAdmin() { return "ADMIN".equals(role); }
     public boolean isAgent() { return "AGENT".equals(role); }
     public boolean isCustomer() { return "CUSTOMER".equals(role); }
@@ -0,0 +1,120 @@
+package com.example.airline;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+/**
+ * SQL for the users table. Rows are mapped by column position from {@link #COLUMNS}.
+ */
+public final class UserRepository {
+
+    private static final String COLUMNS = "user_id, username, password, role, full_name, email, is_active, created_at";
+
+    private static final String FIND_ALL_SQL = "SELECT " + COLUMNS + " FROM users ORDER BY created_at DESC";
+
+    private static final String FIND_BY_USERNAME_SQL = "SELECT " + COLUMNS + " FROM users WHERE username = ?";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO users (username, password, role, full_name, email, phone, address, is_active)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String UPDATE_SQL =
+            "UPDATE users SET username = ?, role = ?, full_name = ?, email = ?, is_active = ? WHERE user_id = ?";
+
+    private static final String UPDATE_PASSWORD_SQL = "UPDATE users SET password = ? WHERE user_id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM users WHERE user_id = ?";
+
+    private UserRepository() {}
+
+    // Newest first
+    public static void findAll(Consumer<User> sink) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FIND_ALL_SQL)) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(map(rs));
+                }
+            }
+        }
+    }
+
+    // Includes the stored password, for sign-in and password checks
+    public static User findByUsername(String username) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(FIND_BY_USERNAME_SQL)) {
+            pstmt.setString(1, username);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        }
+    }
+
+    public static boolean insert(User user) throws SQLException {
+        return insert(user, null, null);
+    }
+
+    public static boolean insert(User user, String phone, String address) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            pstmt.setString(1, user.getUsername());
+            pstmt.setString(2, user.getPassword()); // In real app, hash this password
+            pstmt.setString(3, user.getRole());
+            pstmt.setString(4, user.getFullName());
+            pstmt.setString(5, user.getEmail());
+            pstmt.setString(6, phone);
+            pstmt.setString(7, address);
+            pstmt.setBoolean(8, user.isActive());
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    public static boolean update(User user) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+            pstmt.setString(1, user.getUsername());
+            pstmt.setString(2, user.getRole());
+            pstmt.setString(3, user.getFullName());
+            pstmt.setString(4, user.getEmail());
+            pstmt.setBoolean(5, user.isActive());
+            pstmt.setInt(6, user.getUserId());
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    public static boolean updatePassword(int userId, String password) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_PASSWORD_SQL)) {
+            pstmt.setString(1, password); // In real app, hash this password
+            pstmt.setInt(2, userId);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    public static boolean delete(int userId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+            pstmt.setInt(1, userId);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    private static User map(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setUserId(rs.getInt(1));
+        user.setUsername(rs.getString(2));
+        user.setPassword(rs.getString(3));
+        user.setRole(rs.getString(4));
+        user.setFullName(rs.getString(5));
+        user.setEmail(rs.getString(6));
+        user.setActive(rs.getBoolean(7));
+        Timestamp createdAt = rs.getTimestamp(8);
+        user.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+        return user;
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.airline.controllers;
 
+import com.example.airline.CardPool;
+import com.example.airline.DataAccessExecutor;
+import com.example.airline.ReservationDetails;
+import com.example.airline.ReservationRepository;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -9,6 +13,12 @@ import javafx.scene.layout.Priority;
 import javafx.stage.Stage;
 
 import java.net.URL;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 public class AllBookingsController implements Initializable {
@@ -19,15 +29,33 @@ public class AllBookingsController implements Initializable {
     @FXML private VBox bookingsContainer;
     @FXML private Label totalBookingsLabel;
 
-    private String[] passengerNames = {"Tumisang Madd"};
-    private String[] flights = {"AI101"};
-    private String[] routes = {"Maseru-Durban", "Maseru-Johannesburg"};
-    private String[] statuses = {"Confirmed", "Waiting", "Cancelled"};
+    private static final int PAGE_SIZE = 5;
+    private static final int MAX_CACHED_PAGES = 8;
+
+    private final CardPool<BookingCard> cardPool = new CardPool<>(BookingCard.class, BookingCard::new);
+
+    // Rendered pages, most recently shown last; only touched on the FX thread. Evicted pages hand
+    // their cards back to the pool.
+    private final Map<Integer, VBox> pageCache = new LinkedHashMap<>(MAX_CACHED_PAGES + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, VBox> eldest) {
+            if (size() > MAX_CACHED_PAGES) {
+                cardPool.releaseAll(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    // Last booking of each page fetched, so the following page can be read with a keyset cursor
+    private final Map<Integer, Booking> cursors = new HashMap<>();
+
+    private int totalBookings;
+    // Bumped on refresh so pages fetched for an older count are discarded
+    private int generation;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        setupPagination();
-        refreshBookings();
+        loadBookingCount(false);
     }
 
     private void setupPagination() {
@@ -35,99 +63,130 @@ public class AllBookingsController implements Initializable {
     }
 
     private VBox createBookingsPage(int pageIndex) {
-        VBox page = new VBox(10);
-
-        for (int i = 0; i < 5; i++) {
-            int bookingNumber = pageIndex * 5 + i;
-            page.getChildren().add(createBookingCard(bookingNumber));
+        if (totalBookings == 0) {
+            return new VBox(new Label("No bookings found"));
         }
 
+        VBox page = pageCache.get(pageIndex);
+        if (page == null) {
+            return loadPage(pageIndex);
+        }
+        // A page still loading starts the prefetch itself once its cursor is stored
+        if (cursors.containsKey(pageIndex)) {
+            prefetch(pageIndex + 1);
+        }
         return page;
     }
 
-    private HBox createBookingCard(int bookingNumber) {
-        HBox card = new HBox(15);
-        card.setStyle("-fx-background-color: #f8f9fa; -fx-padding: 15; -fx-border-color: #dee2e6; -fx-border-radius: 5;");
-        card.setPrefWidth(900);
-
-        VBox passengerInfo = new VBox(5);
-        passengerInfo.setPrefWidth(200);
-
-        String pnr = "PNR" + (10000 + bookingNumber);
-        String passenger = passengerNames[bookingNumber % passengerNames.length];
-
-        Label pnrLabel = new Label(pnr);
-        pnrLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
-
-        Label passengerLabel = new Label(passenger);
-        passengerLabel.setStyle("-fx-text-fill: #6c757d;");
-
-        passengerInfo.getChildren().addAll(pnrLabel, passengerLabel);
-
-        VBox flightInfo = new VBox(5);
-        flightInfo.setPrefWidth(250);
-
-        String flight = flights[bookingNumber % flights.length];
-        String route = routes[bookingNumber % routes.length];
-
-        Label flightLabel = new Label(flight + " - " + route);
-        flightLabel.setStyle("-fx-font-weight: bold;");
-
-        Label dateLabel = new Label("2024-02-" + (15 + bookingNumber % 10));
-
-        flightInfo.getChildren().addAll(flightLabel, dateLabel);
-
-        VBox classInfo = new VBox(5);
-        classInfo.setPrefWidth(150);
-
-        String seatClass = bookingNumber % 3 == 0 ? "Business" : "Economy";
-        double fare = seatClass.equals("Business") ? 8000 : 4500;
-
-        Label classLabel = new Label(seatClass);
-        Label fareLabel = new Label("M" + fare);
-
-        classInfo.getChildren().addAll(classLabel, fareLabel);
-
-        // Status
-        VBox statusInfo = new VBox(5);
-        statusInfo.setPrefWidth(100);
-
-        String status = statuses[bookingNumber % statuses.length];
-        Label statusLabel = new Label(status);
-
-        if ("Confirmed".equals(status)) {
-            statusLabel.setStyle("-fx-text-fill: #28a745; -fx-font-weight: bold;");
-        } else if ("Waiting".equals(status)) {
-            statusLabel.setStyle("-fx-text-fill: #ffc107; -fx-font-weight: bold;");
-        } else {
-            statusLabel.setStyle("-fx-text-fill: #dc3545; -fx-font-weight: bold;");
+    // Fetch the next page while this one is being read
+    private void prefetch(int pageIndex) {
+        if (pageIndex < bookingsPagination.getPageCount() && !pageCache.containsKey(pageIndex)) {
+            loadPage(pageIndex);
         }
+    }
 
-        statusInfo.getChildren().addAll(new Label("Status:"), statusLabel);
-
-        HBox.setHgrow(passengerInfo, Priority.ALWAYS);
-        HBox.setHgrow(flightInfo, Priority.ALWAYS);
-        HBox.setHgrow(classInfo, Priority.ALWAYS);
-        HBox.setHgrow(statusInfo, Priority.ALWAYS);
-
-        card.getChildren().addAll(passengerInfo, flightInfo, classInfo, statusInfo);
-
-        return card;
+    /**
+     * Caches a placeholder page straight away and fills it with cards once the rows arrive. If the
+     * page is on screen by then, the next page is prefetched from the cursor stored here.
+     */
+    private VBox loadPage(int pageIndex) {
+        VBox page = new VBox(10);
+        page.getChildren().add(new ProgressIndicator());
+        pageCache.put(pageIndex, page);
+
+        int requestGeneration = generation;
+        Booking cursor = cursors.get(pageIndex - 1);
+
+        DataAccessExecutor.submit(() -> cursor != null
+                ? fetchAfter(cursor)
+                : fetchAt(pageIndex * PAGE_SIZE), bookings -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            if (!bookings.isEmpty()) {
+                cursors.put(pageIndex, bookings.get(bookings.size() - 1));
+                if (bookingsPagination.getCurrentPageIndex() == pageIndex) {
+                    prefetch(pageIndex + 1);
+                }
+            }
+            page.getChildren().clear();
+            for (Booking booking : bookings) {
+                BookingCard card = cardPool.acquire();
+                card.bind(booking);
+                page.getChildren().add(card);
+            }
+        }, e -> {
+            pageCache.remove(pageIndex);
+            page.getChildren().setAll(new Label("Could not load bookings: " + e.getMessage()));
+        });
+        return page;
     }
 
     @FXML
     private void refreshBookings() {
+        loadBookingCount(true);
+    }
+
+    // The count is only taken here, so flipping pages never scans the reservations table
+    private void loadBookingCount(boolean notify) {
         loadingIndicator.setProgress(-1);
 
-        new javafx.animation.PauseTransition(javafx.util.Duration.seconds(1)).play();
+        DataAccessExecutor.submit(this::countBookings, count -> {
+            generation++;
+            pageCache.values().forEach(cardPool::releaseAll);
+            pageCache.clear();
+            cursors.clear();
+            totalBookings = count;
+
+            int pageCount = Math.max(1, (count + PAGE_SIZE - 1) / PAGE_SIZE);
+            totalBookingsLabel.setText(String.valueOf(count));
+            summaryLabel.setText("Showing " + count + " bookings across " + pageCount + " pages");
+            loadingIndicator.setProgress(1.0);
+
+            // Installing the factory again makes Pagination rebuild the current page from the cleared cache
+            bookingsPagination.setPageCount(pageCount);
+            bookingsPagination.setCurrentPageIndex(0);
+            bookingsPagination.setPageFactory(null);
+            setupPagination();
+
+            if (notify) {
+                showAlert(Alert.AlertType.INFORMATION, "Refreshed", "Bookings data refreshed successfully!");
+            }
+        }, e -> {
+            loadingIndicator.setProgress(0);
+            showAlert(Alert.AlertType.ERROR, "Database Error", "Error loading bookings: " + e.getMessage());
+        });
+    }
 
-        bookingsPagination.setPageCount(5);
-        totalBookingsLabel.setText("25");
-        summaryLabel.setText("Showing 25 bookings across 5 pages");
+    private int countBookings() throws SQLException {
+        return ReservationRepository.count();
+    }
 
-        loadingIndicator.setProgress(1.0);
+    private List<Booking> fetchAfter(Booking last) throws SQLException {
+        return bookings(ReservationRepository.findPageAfter(last.createdAt(), last.reservationId(), PAGE_SIZE));
+    }
 
-        showAlert(Alert.AlertType.INFORMATION, "Refreshed", "Bookings data refreshed successfully!");
+    private List<Booking> fetchAt(int offset) throws SQLException {
+        return bookings(ReservationRepository.findPage(offset, PAGE_SIZE));
+    }
+
+    private List<Booking> bookings(List<ReservationDetails> rows) {
+        List<Booking> bookings = new ArrayList<>(rows.size());
+        for (ReservationDetails row : rows) {
+            bookings.add(new Booking(
+                    row.reservationId(),
+                    row.createdAt(),
+                    row.pnr(),
+                    row.passenger(),
+                    row.flightCode(),
+                    row.route("-"),
+                    row.travelDate(),
+                    row.seatClass(),
+                    row.finalFare() == null ? 0 : row.finalFare().doubleValue(),
+                    row.status()
+            ));
+        }
+        return bookings;
     }
 
     @FXML
@@ -150,4 +209,69 @@ public class AllBookingsController implements Initializable {
         alert.setContentText(message);
         alert.showAndWait();
     }
+
+    /**
+     * Card for one booking. The node tree is built once; bind() swaps in the next booking's data.
+     */
+    private static class BookingCard extends HBox {
+
+        private final Label pnrLabel = new Label();
+        private final Label passengerLabel = new Label();
+        private final Label flightLabel = new Label();
+        private final Label dateLabel = new Label();
+        private final Label classLabel = new Label();
+        private final Label fareLabel = new Label();
+        private final Label statusLabel = new Label();
+
+        BookingCard() {
+            super(15);
+            getStyleClass().add("booking-card");
+            setPrefWidth(900);
+
+            pnrLabel.getStyleClass().add("card-heading");
+            passengerLabel.getStyleClass().add("card-muted");
+            VBox passengerInfo = new VBox(5, pnrLabel, passengerLabel);
+            passengerInfo.setPrefWidth(200);
+
+            flightLabel.getStyleClass().add("card-emphasis");
+            VBox flightInfo = new VBox(5, flightLabel, dateLabel);
+            flightInfo.setPrefWidth(250);
+
+            VBox classInfo = new VBox(5, classLabel, fareLabel);
+            classInfo.setPrefWidth(150);
+
+            VBox statusInfo = new VBox(5, new Label("Status:"), statusLabel);
+            statusInfo.setPrefWidth(100);
+
+            HBox.setHgrow(passengerInfo, Priority.ALWAYS);
+            HBox.setHgrow(flightInfo, Priority.ALWAYS);
+            HBox.setHgrow(classInfo, Priority.ALWAYS);
+            HBox.setHgrow(statusInfo, Priority.ALWAYS);
+
+            getChildren().addAll(passengerInfo, flightInfo, classInfo, statusInfo);
+        }
+
+        void bind(Booking booking) {
+            pnrLabel.setText(booking.pnr());
+            passengerLabel.setText(booking.passenger() != null ? booking.passenger() : "Unknown passenger");
+            flightLabel.setText(booking.flightCode() + " - " + booking.route());
+            dateLabel.setText(booking.travelDate());
+            classLabel.setText(booking.seatClass());
+            fareLabel.setText(String.format("M%.2f", booking.fare()));
+
+            String status = booking.status();
+            statusLabel.setText(status);
+            statusLabel.getStyleClass().removeAll("booking-confirmed", "booking-waiting", "booking-cancelled");
+            if ("Confirmed".equals(status)) {
+                statusLabel.getStyleClass().add("booking-confirmed");
+            } else if ("Waiting".equals(status)) {
+                statusLabel.getStyleClass().add("booking-waiting");
+            } else {
+                statusLabel.getStyleClass().add("booking-cancelled");
+            }
+        }
+    }
+
+    private record Booking(int reservationId, String createdAt, String pnr, String passenger, String flightCode,
+                           String route, String travelDate, String seatClass, double fare, String status) {}
 }
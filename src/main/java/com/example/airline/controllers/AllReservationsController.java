@@ -1,19 +1,32 @@
 package com.example.airline.controllers;
 
-import com.example.airline.DatabaseConnection;
+import com.example.airline.AuthService;
+import com.example.airline.CancellationService;
+import com.example.airline.DataAccessExecutor;
+import com.example.airline.PagedList;
+import com.example.airline.RefundPolicy;
+import com.example.airline.ReservationDetails;
+import com.example.airline.ReservationRepository;
+import com.example.airline.ReservationService;
+import com.example.airline.TicketService;
+import com.example.airline.User;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+import java.math.BigDecimal;
 import java.net.URL;
-import java.sql.*;
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -35,7 +48,13 @@ public class AllReservationsController implements Initializable {
     @FXML private Label totalReservationsLabel;
     @FXML private ProgressIndicator loadingIndicator;
 
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_CACHED_PAGES = 4;
+
     private ObservableList<ReservationView> reservations = FXCollections.observableArrayList();
+    private Task<PagedList<ReservationView>> pageTask;
+    private Task<TicketService.BatchResult> batchTask;
+    private Task<CancellationService.DepartureCancellation> departureTask;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -81,7 +100,6 @@ public class AllReservationsController implements Initializable {
             }
         });
 
-        reservationsTable.setItems(reservations);
     }
 
     private void setupSearchComboBox() {
@@ -92,108 +110,38 @@ public class AllReservationsController implements Initializable {
 
     @FXML
     private void loadReservations() {
-        loadingIndicator.setVisible(true);
-        reservations.clear();
-
-        String sql = """
-            SELECT 
-                r.pnr_number, 
-                c.cust_name, 
-                r.f_code, 
-                f.f_name,
-                f.source_place, 
-                f.destination_place,
-                r.class_type,
-                r.seat_number,
-                r.travel_date,
-                r.final_fare,
-                r.status,
-                f.departure_time,
-                f.arrival_time
-            FROM reservations r
-            JOIN customer_details c ON r.pnr_number = c.pnr_number
-            JOIN flight_information f ON r.f_code = f.f_code
-            ORDER BY r.created_at DESC
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                ReservationView reservation = new ReservationView(
-                        rs.getString("pnr_number"),
-                        rs.getString("cust_name"),
-                        rs.getString("f_code") + " - " + rs.getString("f_name"),
-                        rs.getString("source_place") + " → " + rs.getString("destination_place"),
-                        rs.getString("class_type"),
-                        rs.getString("seat_number"),
-                        rs.getString("travel_date"),
-                        "₹" + rs.getBigDecimal("final_fare"),
-                        rs.getString("status"),
-                        rs.getString("source_place"),
-                        rs.getString("destination_place"),
-                        rs.getString("departure_time"),
-                        rs.getString("arrival_time")
-                );
-                reservations.add(reservation);
-            }
-
-            totalReservationsLabel.setText("Total Reservations: " + reservations.size());
-            loadingIndicator.setVisible(false);
-
-        } catch (SQLException e) {
-            showAlert(Alert.AlertType.ERROR, "Database Error", "Error loading reservations: " + e.getMessage());
-            loadingIndicator.setVisible(false);
-        }
+        showPage(new ReservationPageSource(), false);
     }
 
     @FXML
     private void searchReservations() {
-        String searchText = searchField.getText().trim().toLowerCase();
-        String searchCategory = searchType.getValue();
+        String searchText = searchField.getText().trim();
 
         if (searchText.isEmpty()) {
-            reservationsTable.setItems(reservations);
-            totalReservationsLabel.setText("Total Reservations: " + reservations.size());
+            loadReservations();
             return;
         }
 
-        ObservableList<ReservationView> filteredReservations = FXCollections.observableArrayList();
-
-        for (ReservationView reservation : reservations) {
-            boolean matches = false;
-
-            switch (searchCategory) {
-                case "PNR":
-                    matches = reservation.getPnr().toLowerCase().contains(searchText);
-                    break;
-                case "Customer Name":
-                    matches = reservation.getCustomerName().toLowerCase().contains(searchText);
-                    break;
-                case "Flight":
-                    matches = reservation.getFlight().toLowerCase().contains(searchText);
-                    break;
-                case "Status":
-                    matches = reservation.getStatus().toLowerCase().contains(searchText);
-                    break;
-                case "All":
-                default:
-                    matches = reservation.getPnr().toLowerCase().contains(searchText) ||
-                            reservation.getCustomerName().toLowerCase().contains(searchText) ||
-                            reservation.getFlight().toLowerCase().contains(searchText) ||
-                            reservation.getRoute().toLowerCase().contains(searchText) ||
-                            reservation.getStatus().toLowerCase().contains(searchText);
-                    break;
-            }
+        showPage(new ReservationSearchSource(searchType.getValue(), searchText), true);
+    }
 
-            if (matches) {
-                filteredReservations.add(reservation);
-            }
-        }
+    // Counts and fetches the first page in the background; a newer search cancels an older one
+    private void showPage(PagedList.PageSource<ReservationView> source, boolean filtered) {
+        DataAccessExecutor.cancel(pageTask);
+        loadingIndicator.setVisible(true);
 
-        reservationsTable.setItems(filteredReservations);
-        totalReservationsLabel.setText("Found: " + filteredReservations.size() + " reservations");
+        pageTask = DataAccessExecutor.submit(() -> new PagedList<>(source, PAGE_SIZE, MAX_CACHED_PAGES), list -> {
+            reservations = list;
+            reservationsTable.setItems(reservations);
+            reservationsTable.scrollTo(0);
+            totalReservationsLabel.setText(filtered
+                    ? "Found: " + reservations.size() + " reservations"
+                    : "Total Reservations: " + reservations.size());
+            loadingIndicator.setVisible(false);
+        }, e -> {
+            showAlert(Alert.AlertType.ERROR, "Database Error", "Error loading reservations: " + e.getMessage());
+            loadingIndicator.setVisible(false);
+        });
     }
 
     @FXML
@@ -225,8 +173,13 @@ public class AllReservationsController implements Initializable {
             }
 
             // Calculate cancellation charges
-            double cancellationCharge = calculateCancellationCharge(selected);
-            double refundAmount = Double.parseDouble(selected.getFinalFare().replace("₹", "")) - cancellationCharge;
+            RefundPolicy.Quote quote;
+            try {
+                quote = quoteRefund(selected);
+            } catch (Exception e) {
+                showAlert(Alert.AlertType.ERROR, "Calculation Error", "Error calculating refund: " + e.getMessage());
+                return;
+            }
 
             Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
             confirm.setTitle("Confirm Cancellation");
@@ -237,22 +190,23 @@ public class AllReservationsController implements Initializable {
                             "Flight: " + selected.getFlight() + "\n" +
                             "Travel Date: " + selected.getTravelDate() + "\n\n" +
                             "Refund Details:\n" +
-                            "Base Fare: M" + selected.getFinalFare() + "\n" +
-                            "Cancellation Charge: M" + String.format("%.2f", cancellationCharge) + "\n" +
-                            "Refund Amount: M" + String.format("%.2f", refundAmount) + "\n\n" +
+                            "Base Fare: M" + quote.fare() + "\n" +
+                            "Cancellation Charge: M" + quote.charge() + "\n" +
+                            "Refund Amount: M" + quote.refund() + "\n\n" +
                             "This action cannot be undone."
             );
 
             if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
                 try {
-                    if (cancelReservationInDatabase(selected, cancellationCharge, refundAmount)) {
+                    RefundPolicy.Quote refunded = cancelReservationInDatabase(selected);
+                    if (refunded != null) {
                         selected.setStatus("Cancelled");
                         reservationsTable.refresh();
 
                         showAlert(Alert.AlertType.INFORMATION, "Cancellation Successful",
                                 "Reservation cancelled successfully!\n\n" +
                                         "PNR: " + selected.getPnr() + "\n" +
-                                        "Refund Amount: M" + String.format("%.2f", refundAmount) + "\n" +
+                                        "Refund Amount: M" + refunded.refund() + "\n" +
                                         "Refund will be processed within 7-10 working days.");
                     }
                 } catch (Exception e) {
@@ -265,6 +219,103 @@ public class AllReservationsController implements Initializable {
         }
     }
 
+    @FXML
+    private void cancelDeparture() {
+        if (departureTask != null && departureTask.isRunning()) {
+            showAlert(Alert.AlertType.WARNING, "Cancellation Running", "A departure is already being cancelled");
+            return;
+        }
+
+        Optional<DepartureRequest> request = showDepartureDialog();
+        if (request.isEmpty()) {
+            return;
+        }
+        DepartureRequest departure = request.get();
+
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Confirm Departure Cancellation");
+        confirm.setHeaderText("Cancel flight " + departure.flightCode() + " on " + departure.travelDate());
+        confirm.setContentText("Every booking on this departure will be cancelled and its seats released.\n" +
+                (departure.waiveCharges() ? "Passengers receive a full refund." : "Refunds follow the cancellation policy.") +
+                "\n\nThis action cannot be undone.");
+        if (confirm.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+
+        User user = AuthService.getCurrentUser();
+        int cancelledBy = user != null ? user.getUserId() : 1;
+
+        departureTask = new Task<>() {
+            @Override
+            protected CancellationService.DepartureCancellation call() throws Exception {
+                return CancellationService.cancelDeparture(departure.flightCode(), departure.travelDate(),
+                        departure.reason(), cancelledBy, departure.waiveCharges(), this::updateProgress);
+            }
+        };
+        departureTask.setOnSucceeded(event -> {
+            CancellationService.DepartureCancellation result = departureTask.getValue();
+            loadingIndicator.progressProperty().unbind();
+            loadingIndicator.setProgress(-1);
+            loadReservations();
+            showAlert(Alert.AlertType.INFORMATION, "Departure Cancelled",
+                    "Cancelled " + result.cancelled() + " bookings on flight " + result.flightCode() +
+                            " for " + result.travelDate() + "\n" +
+                            "Economy: " + result.economy() + ", Business: " + result.business() + "\n" +
+                            "Total refunds: M" + result.refundTotal());
+        });
+        departureTask.setOnFailed(event -> {
+            loadingIndicator.progressProperty().unbind();
+            loadingIndicator.setProgress(-1);
+            loadingIndicator.setVisible(false);
+            showAlert(Alert.AlertType.ERROR, "Cancellation Error",
+                    "Error cancelling departure: " + departureTask.getException().getMessage());
+        });
+
+        loadingIndicator.setVisible(true);
+        loadingIndicator.progressProperty().bind(departureTask.progressProperty());
+        DataAccessExecutor.execute(departureTask);
+    }
+
+    private Optional<DepartureRequest> showDepartureDialog() {
+        ReservationView selected = reservationsTable.getSelectionModel().getSelectedItem();
+        TextField flightField = new TextField(selected != null ? selected.getFlight().split(" - ")[0] : "");
+        flightField.setPromptText("Flight code");
+        DatePicker datePicker = new DatePicker(LocalDate.now());
+        if (selected != null) {
+            try {
+                datePicker.setValue(LocalDate.parse(selected.getTravelDate()));
+            } catch (RuntimeException e) {
+                // Keep today for rows without a usable travel date
+            }
+        }
+        TextField reasonField = new TextField("Flight cancelled by airline");
+        CheckBox waiveBox = new CheckBox("Waive cancellation charges");
+        waiveBox.setSelected(true);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.addRow(0, new Label("Flight code:"), flightField);
+        grid.addRow(1, new Label("Travel date:"), datePicker);
+        grid.addRow(2, new Label("Reason:"), reasonField);
+        grid.add(waiveBox, 1, 3);
+
+        Dialog<DepartureRequest> dialog = new Dialog<>();
+        dialog.setTitle("Cancel Departure");
+        dialog.setHeaderText("Cancel every booking on one flight and date");
+        dialog.getDialogPane().setContent(grid);
+        dialog.getDialogPane().getButtonTypes().setAll(ButtonType.OK, ButtonType.CANCEL);
+        dialog.setResultConverter(button -> {
+            String flightCode = flightField.getText().trim().toUpperCase();
+            if (button != ButtonType.OK || flightCode.isEmpty() || datePicker.getValue() == null) {
+                return null;
+            }
+            return new DepartureRequest(flightCode, datePicker.getValue(), reasonField.getText().trim(),
+                    waiveBox.isSelected());
+        });
+        return dialog.showAndWait();
+    }
+
     @FXML
     private void printTicket() {
         ReservationView selected = reservationsTable.getSelectionModel().getSelectedItem();
@@ -281,110 +332,31 @@ public class AllReservationsController implements Initializable {
         stage.close();
     }
 
-    private double calculateCancellationCharge(ReservationView reservation) {
-        try {
-            LocalDate travelDate = LocalDate.parse(reservation.getTravelDate());
-            LocalDate currentDate = LocalDate.now();
-            long daysUntilTravel = ChronoUnit.DAYS.between(currentDate, travelDate);
-
-            double baseFare = Double.parseDouble(reservation.getFinalFare().replace("M", ""));
-
-            if (daysUntilTravel > 30) {
-                return baseFare * 0.10;
-            } else if (daysUntilTravel > 15) {
-                return baseFare * 0.25;
-            } else if (daysUntilTravel > 7) {
-                return baseFare * 0.50;
-            } else if (daysUntilTravel > 2) {
-                return baseFare * 0.75;
-            } else {
-                return baseFare * 0.90;
-            }
-
-        } catch (Exception e) {
-            return Double.parseDouble(reservation.getFinalFare().replace("M", "")) * 0.25;
-        }
+    private RefundPolicy.Quote quoteRefund(ReservationView reservation) throws SQLException {
+        return ReservationService.quoteRefund(reservation.getPnr()).quote();
     }
 
-    private boolean cancelReservationInDatabase(ReservationView reservation, double cancellationCharge, double refundAmount) throws SQLException {
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-
-            String updateReservationSQL = "UPDATE reservations SET status = 'Cancelled' WHERE pnr_number = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(updateReservationSQL)) {
-                pstmt.setString(1, reservation.getPnr());
-                pstmt.executeUpdate();
-            }
-
-            String freeSeatSQL = "UPDATE seat_allocation SET is_available = 1, pnr_number = NULL WHERE pnr_number = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(freeSeatSQL)) {
-                pstmt.setString(1, reservation.getPnr());
-                pstmt.executeUpdate();
-            }
-
-            String flightCode = reservation.getFlight().split(" - ")[0];
-            String updateFlightSQL = reservation.getSeatClass().equals("Economy") ?
-                    "UPDATE flight_information SET eco_seats_booked = eco_seats_booked - 1 WHERE f_code = ?" :
-                    "UPDATE flight_information SET exe_seats_booked = exe_seats_booked - 1 WHERE f_code = ?";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(updateFlightSQL)) {
-                pstmt.setString(1, flightCode);
-                pstmt.executeUpdate();
-            }
-
-            String insertCancellationSQL = """
-                INSERT INTO cancellations 
-                (pnr_number, f_code, class_type, base_amount, cancellation_charge, refund_amount, reason, cancelled_by)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-
-            try (PreparedStatement pstmt = conn.prepareStatement(insertCancellationSQL)) {
-                pstmt.setString(1, reservation.getPnr());
-                pstmt.setString(2, flightCode);
-                pstmt.setString(3, reservation.getSeatClass());
-                pstmt.setDouble(4, Double.parseDouble(reservation.getFinalFare().replace("₹", "")));
-                pstmt.setDouble(5, cancellationCharge);
-                pstmt.setDouble(6, refundAmount);
-                pstmt.setString(7, "Customer Request");
-                pstmt.setInt(8, 1); // System user ID
-                pstmt.executeUpdate();
-            }
-
-            conn.commit();
-            return true;
-
-        } catch (SQLException e) {
-            if (conn != null) {
-                conn.rollback();
-            }
-            throw e;
-        } finally {
-            if (conn != null) {
-                conn.setAutoCommit(true);
-            }
-        }
+    private RefundPolicy.Quote cancelReservationInDatabase(ReservationView reservation) throws SQLException {
+        return ReservationService.cancel(new ReservationService.CancellationRequest(
+                reservation.getPnr(), "Customer Request", 1)).quote(); // System user ID
     }
 
     private void printTicket(ReservationView reservation) {
-        try {
-            java.nio.file.Path ticketsDir = java.nio.file.Paths.get("tickets");
-            if (!java.nio.file.Files.exists(ticketsDir)) {
-                java.nio.file.Files.createDirectories(ticketsDir);
-            }
-
-            String timestamp = java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String filename = "ticket_" + reservation.getPnr() + "_" + timestamp;
-
-            String textContent = createTicketText(reservation);
-            java.nio.file.Path textFile = ticketsDir.resolve(filename + ".txt");
-            java.nio.file.Files.write(textFile, textContent.getBytes());
-
-            String htmlContent = createTicketHTML(reservation);
-            java.nio.file.Path htmlFile = ticketsDir.resolve(filename + ".html");
-            java.nio.file.Files.write(htmlFile, htmlContent.getBytes());
+        TicketService.Ticket ticket = new TicketService.Ticket(
+                reservation.getPnr(),
+                reservation.getCustomerName(),
+                reservation.getFlight(),
+                reservation.getRoute(),
+                reservation.getTravelDate(),
+                reservation.getDepartureTime(),
+                reservation.getArrivalTime(),
+                reservation.getSeatClass(),
+                reservation.getSeatNumber(),
+                reservation.getFinalFare(),
+                reservation.getStatus()
+        );
 
+        TicketService.print(ticket, files -> {
             // Show success message with file locations
             String message = String.format("""
             Ticket printed successfully!
@@ -394,130 +366,75 @@ public class AllReservationsController implements Initializable {
             HTML: %s
             
             The HTML file can be printed or converted to PDF.
-            """, textFile.toAbsolutePath(), htmlFile.toAbsolutePath());
+            """, files.text().toAbsolutePath(), files.html().toAbsolutePath());
 
-            showTicketPreview(reservation, message);
+            showTicketPreview(ticket, message);
+        }, e -> showAlert(Alert.AlertType.ERROR, "Print Error",
+                "Error printing ticket: " + e.getMessage()));
+    }
 
-        } catch (Exception e) {
-            showAlert(Alert.AlertType.ERROR, "Print Error",
-                    "Error printing ticket: " + e.getMessage());
+    @FXML
+    private void printTicketBatch() {
+        if (batchTask != null && batchTask.isRunning()) {
+            showAlert(Alert.AlertType.WARNING, "Batch Running", "A batch print is already in progress");
+            return;
         }
-    }
 
-    private String createTicketText(ReservationView reservation) {
-        return String.format("""
-        ╔══════════════════════════════════════════════════════════════════╗
-        ║                      AIRLINE E-TICKET                           ║
-        ╠══════════════════════════════════════════════════════════════════╣
-        ║  PNR NUMBER: %-45s ║
-        ║  PASSENGER: %-47s ║
-        ║  FLIGHT: %-49s ║
-        ║  ROUTE: %-50s ║
-        ║  DATE: %-12s DEPARTURE: %-8s ARRIVAL: %-8s ║
-        ║  CLASS: %-10s SEAT: %-12s FARE: %-12s ║
-        ║  STATUS: %-47s ║
-        ╠══════════════════════════════════════════════════════════════════╣
-        ║  BOARDING TIME: 45 minutes before departure                     ║
-        ║  GATE: To be announced                                          ║
-        ║  TERMINAL: Main Terminal                                        ║
-        ╠══════════════════════════════════════════════════════════════════╣
-        ║               THANK YOU FOR CHOOSING OUR AIRLINE!               ║
-        ║                 HAVE A SAFE AND PLEASANT JOURNEY!               ║
-        ╚══════════════════════════════════════════════════════════════════╝
-        
-        Generated on: %s
-        """,
-                reservation.getPnr(),
-                reservation.getCustomerName(),
-                reservation.getFlight(),
-                reservation.getRoute(),
-                reservation.getTravelDate(),
-                reservation.getDepartureTime(),
-                reservation.getArrivalTime(),
-                reservation.getSeatClass(),
-                reservation.getSeatNumber(),
-                reservation.getFinalFare(),
-                reservation.getStatus(),
-                java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
-        );
+        Optional<TicketService.BatchRequest> request = showBatchDialog();
+        if (request.isEmpty()) {
+            return;
+        }
+
+        loadingIndicator.setVisible(true);
+        batchTask = TicketService.printBatch(request.get(), result -> {
+            loadingIndicator.progressProperty().unbind();
+            loadingIndicator.setProgress(-1);
+            loadingIndicator.setVisible(false);
+            showAlert(Alert.AlertType.INFORMATION, "Batch Complete",
+                    "Printed " + result.tickets() + " tickets to:\n" + result.output().toAbsolutePath());
+        }, e -> {
+            loadingIndicator.progressProperty().unbind();
+            loadingIndicator.setProgress(-1);
+            loadingIndicator.setVisible(false);
+            showAlert(Alert.AlertType.ERROR, "Print Error", "Error printing tickets: " + e.getMessage());
+        });
+        loadingIndicator.progressProperty().bind(batchTask.progressProperty());
     }
 
-    private String createTicketHTML(ReservationView reservation) {
-        return String.format("""
-        <!DOCTYPE html>
-        <html>
-        <head>
-            <title>E-Ticket - %s</title>
-            <style>
-                body { font-family: Arial, sans-serif; margin: 20px; }
-                .ticket { border: 2px solid #333; padding: 20px; max-width: 600px; margin: 0 auto; }
-                .header { text-align: center; background: #2c3e50; color: white; padding: 10px; margin: -20px -20px 20px -20px; }
-                .section { margin: 15px 0; padding: 10px; border-bottom: 1px solid #ddd; }
-                .label { font-weight: bold; color: #2c3e50; }
-                .value { margin-left: 10px; }
-                .footer { text-align: center; margin-top: 20px; padding: 10px; background: #ecf0f1; }
-                .barcode { text-align: center; margin: 20px 0; font-family: 'Libre Barcode 128', monospace; font-size: 24px; }
-            </style>
-        </head>
-        <body>
-            <div class="ticket">
-                <div class="header">
-                    <h1>ELECTRONIC TICKET</h1>
-                    <h2>BOARDING PASS</h2>
-                </div>
-                
-                <div class="section">
-                    <div><span class="label">PNR:</span><span class="value">%s</span></div>
-                    <div><span class="label">Passenger:</span><span class="value">%s</span></div>
-                </div>
-                
-                <div class="section">
-                    <div><span class="label">Flight:</span><span class="value">%s</span></div>
-                    <div><span class="label">Route:</span><span class="value">%s</span></div>
-                    <div><span class="label">Date:</span><span class="value">%s</span></div>
-                    <div><span class="label">Time:</span><span class="value">%s - %s</span></div>
-                </div>
-                
-                <div class="section">
-                    <div><span class="label">Class:</span><span class="value">%s</span></div>
-                    <div><span class="label">Seat:</span><span class="value">%s</span></div>
-                    <div><span class="label">Fare:</span><span class="value">%s</span></div>
-                    <div><span class="label">Status:</span><span class="value">%s</span></div>
-                </div>
-                
-                <div class="barcode">
-                    *%s*  <!-- Simulated barcode -->
-                </div>
-                
-                <div class="footer">
-                    <p><strong>Boarding Time:</strong> 45 minutes before departure</p>
-                    <p><strong>Gate:</strong> To be announced | <strong>Terminal:</strong> Main</p>
-                    <p><em>Thank you for choosing our airline! Have a safe journey!</em></p>
-                    <p>Generated on: %s</p>
-                </div>
-            </div>
-        </body>
-        </html>
-        """,
-                reservation.getPnr(),
-                reservation.getPnr(),
-                reservation.getCustomerName(),
-                reservation.getFlight(),
-                reservation.getRoute(),
-                reservation.getTravelDate(),
-                reservation.getDepartureTime(),
-                reservation.getArrivalTime(),
-                reservation.getSeatClass(),
-                reservation.getSeatNumber(),
-                reservation.getFinalFare(),
-                reservation.getStatus(),
-                reservation.getPnr(),
-                java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
-        );
+    private Optional<TicketService.BatchRequest> showBatchDialog() {
+        TextField flightField = new TextField();
+        flightField.setPromptText("All flights");
+        DatePicker fromPicker = new DatePicker(LocalDate.now());
+        DatePicker toPicker = new DatePicker(LocalDate.now());
+        CheckBox zipBox = new CheckBox("Bundle into a single ZIP");
+        zipBox.setSelected(true);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.addRow(0, new Label("Flight code:"), flightField);
+        grid.addRow(1, new Label("From date:"), fromPicker);
+        grid.addRow(2, new Label("To date:"), toPicker);
+        grid.add(zipBox, 1, 3);
+
+        Dialog<TicketService.BatchRequest> dialog = new Dialog<>();
+        dialog.setTitle("Batch Print Tickets");
+        dialog.setHeaderText("Print tickets for every booking on a flight or departure date range");
+        dialog.getDialogPane().setContent(grid);
+        dialog.getDialogPane().getButtonTypes().setAll(ButtonType.OK, ButtonType.CANCEL);
+        dialog.setResultConverter(button -> {
+            if (button != ButtonType.OK || fromPicker.getValue() == null || toPicker.getValue() == null) {
+                return null;
+            }
+            String flightCode = flightField.getText().trim().toUpperCase();
+            return new TicketService.BatchRequest(flightCode.isEmpty() ? null : flightCode,
+                    fromPicker.getValue(), toPicker.getValue(), zipBox.isSelected());
+        });
+        return dialog.showAndWait();
     }
 
-    private void showTicketPreview(ReservationView reservation, String fileMessage) {
-        TextArea ticketArea = new TextArea(createTicketText(reservation));
+    private void showTicketPreview(TicketService.Ticket ticket, String fileMessage) {
+        TextArea ticketArea = new TextArea(TicketService.renderText(ticket));
         ticketArea.setEditable(false);
         ticketArea.setStyle("-fx-font-family: 'Courier New'; -fx-font-size: 11px;");
         ticketArea.setPrefRowCount(25);
@@ -530,7 +447,7 @@ public class AllReservationsController implements Initializable {
         );
 
         Alert ticketAlert = new Alert(Alert.AlertType.INFORMATION);
-        ticketAlert.setTitle("E-Ticket - " + reservation.getPnr());
+        ticketAlert.setTitle("E-Ticket - " + ticket.pnr());
         ticketAlert.setHeaderText("Ticket Printed Successfully");
         ticketAlert.getDialogPane().setContent(content);
         ticketAlert.getDialogPane().setPrefSize(700, 600);
@@ -542,7 +459,7 @@ public class AllReservationsController implements Initializable {
         Optional<ButtonType> result = ticketAlert.showAndWait();
         if (result.isPresent() && result.get() == openFolderButton) {
             try {
-                java.awt.Desktop.getDesktop().open(new java.io.File("tickets"));
+                java.awt.Desktop.getDesktop().open(TicketService.TICKETS_DIR.toFile());
             } catch (Exception e) {
                 showAlert(Alert.AlertType.ERROR, "Folder Error", "Cannot open folder: " + e.getMessage());
             }
@@ -578,53 +495,186 @@ public class AllReservationsController implements Initializable {
         alert.showAndWait();
     }
 
+    /**
+     * All reservations newest first. Pages are keyed on (created_at, reservation_id), so each page is
+     * an index range scan.
+     */
+    private static class ReservationPageSource implements PagedList.PageSource<ReservationView> {
+
+        @Override
+        public int count() throws SQLException {
+            return ReservationRepository.count();
+        }
+
+        @Override
+        public List<ReservationView> fetchAfter(ReservationView last, int limit) throws SQLException {
+            return views(ReservationRepository.findPageAfter(last.getCreatedAt(), last.getReservationId(), limit));
+        }
+
+        @Override
+        public List<ReservationView> fetchAt(int offset, int limit) throws SQLException {
+            return views(ReservationRepository.findPage(offset, limit));
+        }
+
+        private static List<ReservationView> views(List<ReservationDetails> rows) {
+            List<ReservationView> views = new ArrayList<>(rows.size());
+            for (ReservationDetails row : rows) {
+                views.add(ReservationView.from(row));
+            }
+            return views;
+        }
+    }
+
+    /**
+     * Reservations matching a reservation_search (FTS5) query. Every search word is a prefix term,
+     * so "jan al1" finds Jane on AL102. Up to RANKED_MATCH_LIMIT matches are ordered by bm25 rank;
+     * broader queries, where ranking tens of thousands of near-identical rows costs more than it tells,
+     * are listed newest first straight off the FTS rowid order.
+     */
+    private static class ReservationSearchSource implements PagedList.PageSource<ReservationView> {
+        private static final int RANKED_MATCH_LIMIT = 5000;
+
+        private final String matchQuery;
+        private volatile boolean ranked = true;
+
+        ReservationSearchSource(String category, String searchText) {
+            this.matchQuery = toMatchQuery(category, searchText);
+        }
+
+        private static String toMatchQuery(String category, String searchText) {
+            StringBuilder terms = new StringBuilder();
+            for (String word : searchText.split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    terms.append(terms.length() > 0 ? " " : "").append('"').append(word).append("\"*");
+                }
+            }
+            if (terms.length() == 0) {
+                return null;
+            }
+
+            String column = switch (category == null ? "All" : category) {
+                case "PNR" -> "pnr_number";
+                case "Customer Name" -> "cust_name";
+                case "Flight" -> "flight";
+                case "Status" -> "status";
+                default -> null;
+            };
+            return column == null ? terms.toString() : "{" + column + "} : (" + terms + ")";
+        }
+
+        @Override
+        public int count() throws SQLException {
+            if (matchQuery == null) {
+                return 0;
+            }
+
+            int count = ReservationRepository.countMatches(matchQuery);
+            ranked = count <= RANKED_MATCH_LIMIT;
+            return count;
+        }
+
+        @Override
+        public List<ReservationView> fetchAfter(ReservationView last, int limit) throws SQLException {
+            return views(ReservationRepository.searchPageAfter(matchQuery, ranked, last.getSearchScore(),
+                    last.getReservationId(), limit));
+        }
+
+        @Override
+        public List<ReservationView> fetchAt(int offset, int limit) throws SQLException {
+            if (matchQuery == null) {
+                return List.of();
+            }
+            return views(ReservationRepository.searchPage(matchQuery, ranked, offset, limit));
+        }
+
+        // Each row carries its bm25 score, so any row can serve as the keyset cursor for the next page
+        private static List<ReservationView> views(List<ReservationRepository.Match> page) {
+            List<ReservationView> rows = new ArrayList<>(page.size());
+            for (ReservationRepository.Match match : page) {
+                rows.add(ReservationView.from(match.reservation(), match.score()));
+            }
+            return rows;
+        }
+    }
+
+    private record DepartureRequest(String flightCode, LocalDate travelDate, String reason, boolean waiveCharges) {}
+
     public static class ReservationView {
+        private final int reservationId;
+        private final String createdAt;
         private final String pnr;
         private final String customerName;
+        private final String flightCode;
         private final String flight;
         private final String route;
         private final String seatClass;
         private final String seatNumber;
         private final String travelDate;
+        private final BigDecimal fareAmount;
         private final String finalFare;
         private String status;
         private final String sourcePlace;
         private final String destinationPlace;
         private final String departureTime;
         private final String arrivalTime;
-
-        public ReservationView(String pnr, String customerName, String flight, String route,
-                               String seatClass, String seatNumber, String travelDate,
-                               String finalFare, String status, String sourcePlace,
-                               String destinationPlace, String departureTime, String arrivalTime) {
+        // bm25 score when the row came from a ranked search, 0 otherwise
+        private final double searchScore;
+
+        public ReservationView(int reservationId, String createdAt, String pnr, String customerName,
+                               String flightCode, String flight, String route, String seatClass, String seatNumber,
+                               String travelDate, BigDecimal fareAmount, String status, String sourcePlace,
+                               String destinationPlace, String departureTime, String arrivalTime,
+                               double searchScore) {
+            this.reservationId = reservationId;
+            this.createdAt = createdAt;
             this.pnr = pnr;
             this.customerName = customerName;
+            this.flightCode = flightCode;
             this.flight = flight;
             this.route = route;
             this.seatClass = seatClass;
             this.seatNumber = seatNumber;
             this.travelDate = travelDate;
-            this.finalFare = finalFare;
+            this.fareAmount = fareAmount;
+            this.finalFare = "₹" + fareAmount;
             this.status = status;
             this.sourcePlace = sourcePlace;
             this.destinationPlace = destinationPlace;
             this.departureTime = departureTime;
             this.arrivalTime = arrivalTime;
+            this.searchScore = searchScore;
+        }
+
+        static ReservationView from(ReservationDetails details) {
+            return from(details, 0);
+        }
+
+        static ReservationView from(ReservationDetails details, double searchScore) {
+            return new ReservationView(details.reservationId(), details.createdAt(), details.pnr(),
+                    details.passenger(), details.flightCode(), details.flight(), details.route(" → "),
+                    details.seatClass(), details.seatNumber(), details.travelDate(), details.finalFare(),
+                    details.status(), details.sourcePlace(), details.destinationPlace(),
+                    details.departureTime(), details.arrivalTime(), searchScore);
         }
 
+        public int getReservationId() { return reservationId; }
+        public String getCreatedAt() { return createdAt; }
         public String getPnr() { return pnr; }
         public String getCustomerName() { return customerName; }
+        public String getFlightCode() { return flightCode; }
         public String getFlight() { return flight; }
         public String getRoute() { return route; }
         public String getSeatClass() { return seatClass; }
         public String getSeatNumber() { return seatNumber; }
         public String getTravelDate() { return travelDate; }
+        public BigDecimal getFareAmount() { return fareAmount; }
         public String getFinalFare() { return finalFare; }
         public String getStatus() { return status; }
         public String getSourcePlace() { return sourcePlace; }
         public String getDestinationPlace() { return destinationPlace; }
         public String getDepartureTime() { return departureTime; }
         public String getArrivalTime() { return arrivalTime; }
+        public double getSearchScore() { return searchScore; }
 
         public void setStatus(String status) { this.status = status; }
     }
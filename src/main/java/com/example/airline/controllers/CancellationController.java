@@ -1,8 +1,14 @@
 package com.example.airline.controllers;
 
-import com.example.airline.DatabaseConnection;
+import com.example.airline.DataAccessExecutor;
+import com.example.airline.RefundPolicy;
+import com.example.airline.ReservationDetails;
+import com.example.airline.ReservationRepository;
+import com.example.airline.ReservationService;
+import com.example.airline.TicketService;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -10,9 +16,7 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.sql.*;
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.sql.SQLException;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -45,6 +49,7 @@ public class CancellationController implements Initializable {
     @FXML private Button printTicketButton;
 
     private ObservableList<Reservation> reservations = FXCollections.observableArrayList();
+    private Task<Integer> loadTask;
     private Reservation selectedReservation;
 
     @Override
@@ -147,19 +152,17 @@ public class CancellationController implements Initializable {
         }
 
         try {
-            double baseAmount = selectedReservation.getFinalFare();
-            double cancellationCharge = calculateCancellationCharge(selectedReservation);
-            double refundAmount = baseAmount - cancellationCharge;
+            RefundPolicy.Quote quote = quoteRefund(selectedReservation);
 
-            baseFareLabel.setText("M" + String.format("%.2f", baseAmount));
-            cancellationChargeLabel.setText("M" + String.format("%.2f", cancellationCharge));
-            refundAmountLabel.setText("M" + String.format("%.2f", refundAmount));
+            baseFareLabel.setText("M" + quote.fare());
+            cancellationChargeLabel.setText("M" + quote.charge());
+            refundAmountLabel.setText("M" + quote.refund());
 
             showAlert(Alert.AlertType.INFORMATION, "Refund Calculated",
                     "Refund Details:\n" +
-                            "Base Fare: M" + String.format("%.2f", baseAmount) + "\n" +
-                            "Cancellation Charge: M" + String.format("%.2f", cancellationCharge) + "\n" +
-                            "Refund Amount: M" + String.format("%.2f", refundAmount));
+                            "Base Fare: M" + quote.fare() + "\n" +
+                            "Cancellation Charge: M" + quote.charge() + "\n" +
+                            "Refund Amount: M" + quote.refund());
 
         } catch (Exception e) {
             showAlert(Alert.AlertType.ERROR, "Calculation Error",
@@ -181,9 +184,14 @@ public class CancellationController implements Initializable {
         }
 
         // Calculate refund before cancellation
-        double baseAmount = selectedReservation.getFinalFare();
-        double cancellationCharge = calculateCancellationCharge(selectedReservation);
-        double refundAmount = baseAmount - cancellationCharge;
+        RefundPolicy.Quote quote;
+        try {
+            quote = quoteRefund(selectedReservation);
+        } catch (Exception e) {
+            showAlert(Alert.AlertType.ERROR, "Calculation Error",
+                    "Error calculating refund: " + e.getMessage());
+            return;
+        }
 
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
         confirm.setTitle("Confirm Cancellation");
@@ -194,16 +202,17 @@ public class CancellationController implements Initializable {
                         "Flight: " + selectedReservation.getFlight() + "\n" +
                         "Travel Date: " + selectedReservation.getTravelDate() + "\n\n" +
                         "Refund Details:\n" +
-                        "Base Fare: M" + String.format("%.2f", baseAmount) + "\n" +
-                        "Cancellation Charge: M" + String.format("%.2f", cancellationCharge) + "\n" +
-                        "Refund Amount: M" + String.format("%.2f", refundAmount) + "\n\n" +
+                        "Base Fare: M" + quote.fare() + "\n" +
+                        "Cancellation Charge: M" + quote.charge() + "\n" +
+                        "Refund Amount: M" + quote.refund() + "\n\n" +
                         "This action cannot be undone."
         );
 
         Optional<ButtonType> result = confirm.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
             try {
-                if (cancelReservationInDatabase(selectedReservation, cancellationCharge, refundAmount)) {
+                RefundPolicy.Quote refunded = cancelReservationInDatabase(selectedReservation);
+                if (refunded != null) {
 
                     selectedReservation.setStatus("Cancelled");
                     reservationsTable.refresh();
@@ -214,7 +223,7 @@ public class CancellationController implements Initializable {
                     showAlert(Alert.AlertType.INFORMATION, "Cancellation Successful",
                             "Booking cancelled successfully!\n\n" +
                                     "PNR: " + selectedReservation.getPnr() + "\n" +
-                                    "Refund Amount: M" + String.format("%.2f", refundAmount) + "\n" +
+                                    "Refund Amount: M" + refunded.refund() + "\n" +
                                     "Refund will be processed within 7-10 working days.");
                 }
             } catch (Exception e) {
@@ -241,10 +250,10 @@ public class CancellationController implements Initializable {
 
     @FXML
     private void handleRefresh() {
-        loadAllReservations();
+        loadAllReservations(() -> showAlert(Alert.AlertType.INFORMATION, "Refreshed",
+                "Booking list updated successfully!"));
         clearBookingDetails();
         pnrSearchField.clear();
-        showAlert(Alert.AlertType.INFORMATION, "Refreshed", "Booking list updated successfully!");
     }
 
     @FXML
@@ -254,200 +263,50 @@ public class CancellationController implements Initializable {
     }
 
     private void loadAllReservations() {
-        reservations.clear();
+        loadAllReservations(() -> {});
+    }
 
-        String sql = """
-            SELECT r.pnr_number, c.cust_name, r.f_code, f.f_name, r.travel_date,
-                   r.class_type, r.seat_number, r.final_fare, r.status,
-                   f.source_place, f.destination_place, f.departure_time, f.arrival_time
-            FROM reservations r
-            JOIN customer_details c ON r.pnr_number = c.pnr_number
-            JOIN flight_information f ON r.f_code = f.f_code
-            ORDER BY r.travel_date DESC
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Reservation reservation = new Reservation(
-                        rs.getString("pnr_number"),
-                        rs.getString("cust_name"),
-                        rs.getString("f_code") + " - " + rs.getString("f_name"),
-                        rs.getString("travel_date"),
-                        rs.getString("class_type"),
-                        rs.getString("seat_number"),
-                        rs.getDouble("final_fare"),
-                        rs.getString("status"),
-                        rs.getString("source_place"),
-                        rs.getString("destination_place"),
-                        rs.getString("departure_time"),
-                        rs.getString("arrival_time")
-                );
-                reservations.add(reservation);
-            }
+    private void loadAllReservations(Runnable onLoaded) {
+        DataAccessExecutor.cancel(loadTask);
+        reservations.clear();
 
-        } catch (SQLException e) {
-            showAlert(Alert.AlertType.ERROR, "Database Error",
-                    "Error loading reservations: " + e.getMessage());
-        }
+        loadTask = DataAccessExecutor.<Reservation>stream(
+                sink -> ReservationRepository.findAll(details -> sink.accept(Reservation.from(details))),
+                DataAccessExecutor.DEFAULT_BATCH_SIZE, reservations::addAll, count -> onLoaded.run(),
+                e -> showAlert(Alert.AlertType.ERROR, "Database Error",
+                        "Error loading reservations: " + e.getMessage()));
     }
 
     private Reservation findReservationByPNR(String pnr) throws SQLException {
-        String sql = """
-            SELECT r.pnr_number, c.cust_name, r.f_code, f.f_name, r.travel_date,
-                   r.class_type, r.seat_number, r.final_fare, r.status,
-                   f.source_place, f.destination_place, f.departure_time, f.arrival_time
-            FROM reservations r
-            JOIN customer_details c ON r.pnr_number = c.pnr_number
-            JOIN flight_information f ON r.f_code = f.f_code
-            WHERE r.pnr_number = ?
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, pnr);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return new Reservation(
-                        rs.getString("pnr_number"),
-                        rs.getString("cust_name"),
-                        rs.getString("f_code") + " - " + rs.getString("f_name"),
-                        rs.getString("travel_date"),
-                        rs.getString("class_type"),
-                        rs.getString("seat_number"),
-                        rs.getDouble("final_fare"),
-                        rs.getString("status"),
-                        rs.getString("source_place"),
-                        rs.getString("destination_place"),
-                        rs.getString("departure_time"),
-                        rs.getString("arrival_time")
-                );
-            }
-        }
-        return null;
+        ReservationDetails details = ReservationRepository.findByPnr(pnr);
+        return details == null ? null : Reservation.from(details);
     }
 
-    private double calculateCancellationCharge(Reservation reservation) {
-        try {
-            LocalDate travelDate = LocalDate.parse(reservation.getTravelDate());
-            LocalDate currentDate = LocalDate.now();
-            long daysUntilTravel = ChronoUnit.DAYS.between(currentDate, travelDate);
-
-            double baseFare = reservation.getFinalFare();
-
-            if (daysUntilTravel > 30) {
-                return baseFare * 0.10;
-            } else if (daysUntilTravel > 15) {
-                return baseFare * 0.25;
-            } else if (daysUntilTravel > 7) {
-                return baseFare * 0.50;
-            } else if (daysUntilTravel > 2) {
-                return baseFare * 0.75;
-            } else {
-                return baseFare * 0.90;
-            }
-
-        } catch (Exception e) {
-            return reservation.getFinalFare() * 0.25;
-        }
+    private RefundPolicy.Quote quoteRefund(Reservation reservation) throws SQLException {
+        return ReservationService.quoteRefund(reservation.getPnr()).quote();
     }
 
-    private boolean cancelReservationInDatabase(Reservation reservation, double cancellationCharge, double refundAmount) throws SQLException {
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-
-            String updateReservationSQL = "UPDATE reservations SET status = 'Cancelled' WHERE pnr_number = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(updateReservationSQL)) {
-                pstmt.setString(1, reservation.getPnr());
-                pstmt.executeUpdate();
-            }
-
-            String freeSeatSQL = "UPDATE seat_allocation SET is_available = 1, pnr_number = NULL WHERE pnr_number = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(freeSeatSQL)) {
-                pstmt.setString(1, reservation.getPnr());
-                pstmt.executeUpdate();
-            }
-
-            String flightCode = reservation.getFlight().split(" - ")[0];
-            String updateFlightSQL = reservation.getSeatClass().equals("Economy") ?
-                    "UPDATE flight_information SET eco_seats_booked = eco_seats_booked - 1 WHERE f_code = ?" :
-                    "UPDATE flight_information SET exe_seats_booked = exe_seats_booked - 1 WHERE f_code = ?";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(updateFlightSQL)) {
-                pstmt.setString(1, flightCode);
-                pstmt.executeUpdate();
-            }
-
-            String insertCancellationSQL = """
-                INSERT INTO cancellations 
-                (pnr_number, f_code, class_type, base_amount, cancellation_charge, refund_amount, reason, cancelled_by)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-
-            try (PreparedStatement pstmt = conn.prepareStatement(insertCancellationSQL)) {
-                pstmt.setString(1, reservation.getPnr());
-                pstmt.setString(2, flightCode);
-                pstmt.setString(3, reservation.getSeatClass());
-                pstmt.setDouble(4, reservation.getFinalFare());
-                pstmt.setDouble(5, cancellationCharge);
-                pstmt.setDouble(6, refundAmount);
-                pstmt.setString(7, "Customer Request");
-                pstmt.setInt(8, 1); // System user ID
-                pstmt.executeUpdate();
-            }
-
-            conn.commit();
-            return true;
-
-        } catch (SQLException e) {
-            if (conn != null) {
-                conn.rollback();
-            }
-            throw e;
-        } finally {
-            if (conn != null) {
-                conn.setAutoCommit(true);
-            }
-        }
+    private RefundPolicy.Quote cancelReservationInDatabase(Reservation reservation) throws SQLException {
+        return ReservationService.cancel(new ReservationService.CancellationRequest(
+                reservation.getPnr(), "Customer Request", 1)).quote(); // System user ID
     }
 
     private void printTicket(Reservation reservation) {
-        String ticket = """
-            ╔══════════════════════════════════════════════════╗
-            ║                E-TICKET / BOARDING PASS          ║
-            ╠══════════════════════════════════════════════════╣
-            ║  PNR: %s                                        ║
-            ║  Passenger: %-30s ║
-            ║  Flight: %-35s ║
-            ║  Route: %s → %-25s ║
-            ║  Date: %-12s Time: %s - %s          ║
-            ║  Class: %-10s Seat: %-10s           ║
-            ║  Fare: M%-10.2f Status: %-12s     ║
-            ╠══════════════════════════════════════════════════╣
-            ║           ✈️  HAVE A SAFE JOURNEY! ✈️            ║
-            ╚══════════════════════════════════════════════════╝
-            """.formatted(
+        TicketService.Ticket ticket = new TicketService.Ticket(
                 reservation.getPnr(),
                 reservation.getPassengerName(),
                 reservation.getFlight(),
-                reservation.getSourcePlace(),
-                reservation.getDestinationPlace(),
+                reservation.getSourcePlace() + " → " + reservation.getDestinationPlace(),
                 reservation.getTravelDate(),
                 reservation.getDepartureTime(),
                 reservation.getArrivalTime(),
                 reservation.getSeatClass(),
                 reservation.getSeatNumber(),
-                reservation.getFinalFare(),
+                String.format("M%.2f", reservation.getFinalFare()),
                 reservation.getStatus()
         );
 
-        TextArea ticketArea = new TextArea(ticket);
+        TextArea ticketArea = new TextArea(TicketService.renderText(ticket));
         ticketArea.setEditable(false);
         ticketArea.setStyle("-fx-font-family: 'Courier New'; -fx-font-size: 12px;");
 
@@ -463,8 +322,9 @@ public class CancellationController implements Initializable {
 
         Optional<ButtonType> result = ticketAlert.showAndWait();
         if (result.isPresent() && result.get() == printButton) {
-            showAlert(Alert.AlertType.INFORMATION, "Print",
-                    "Ticket sent to printer!\nIn a real application, this would connect to a printer.");
+            TicketService.print(ticket, files -> showAlert(Alert.AlertType.INFORMATION, "Print",
+                    "Ticket saved for printing:\n" + files.text().toAbsolutePath() + "\n" + files.html().toAbsolutePath()),
+                    e -> showAlert(Alert.AlertType.ERROR, "Print Error", "Error printing ticket: " + e.getMessage()));
         }
     }
 
@@ -520,6 +380,7 @@ public class CancellationController implements Initializable {
     public static class Reservation {
         private final String pnr;
         private final String passengerName;
+        private final String flightCode;
         private final String flight;
         private final String travelDate;
         private final String seatClass;
@@ -531,11 +392,12 @@ public class CancellationController implements Initializable {
         private final String departureTime;
         private final String arrivalTime;
 
-        public Reservation(String pnr, String passengerName, String flight, String travelDate,
+        public Reservation(String pnr, String passengerName, String flightCode, String flight, String travelDate,
                            String seatClass, String seatNumber, double finalFare, String status,
                            String sourcePlace, String destinationPlace, String departureTime, String arrivalTime) {
             this.pnr = pnr;
             this.passengerName = passengerName;
+            this.flightCode = flightCode;
             this.flight = flight;
             this.travelDate = travelDate;
             this.seatClass = seatClass;
@@ -548,8 +410,16 @@ public class CancellationController implements Initializable {
             this.arrivalTime = arrivalTime;
         }
 
+        static Reservation from(ReservationDetails details) {
+            return new Reservation(details.pnr(), details.passenger(), details.flightCode(), details.flight(),
+                    details.travelDate(), details.seatClass(), details.seatNumber(),
+                    details.finalFare() == null ? 0 : details.finalFare().doubleValue(), details.status(),
+                    details.sourcePlace(), details.destinationPlace(), details.departureTime(), details.arrivalTime());
+        }
+
         public String getPnr() { return pnr; }
         public String getPassengerName() { return passengerName; }
+        public String getFlightCode() { return flightCode; }
         public String getFlight() { return flight; }
         public String getTravelDate() { return travelDate; }
         public String getSeatClass() { return seatClass; }
@@ -1,7 +1,11 @@
 package com.example.airline.controllers;
 
-import com.example.airline.DatabaseConnection;
+import com.example.airline.DataAccessExecutor;
+import com.example.airline.FareRepository;
+import com.example.airline.FareService;
 import com.example.airline.Flight;
+import com.example.airline.FlightInventoryCache;
+import com.example.airline.FlightRepository;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -13,7 +17,7 @@ import javafx.util.Callback;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.sql.*;
+import java.sql.SQLException;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -56,7 +60,7 @@ public class FlightManagementController implements Initializable {
         initializeComboBoxes();
         setupTableColumns();
         setupTableSelectionListener();
-        loadFlightsFromDatabase();
+        loadFlightsFromDatabase(false);
         clearForm();
         updateNavigationInfo();
     }
@@ -161,46 +165,23 @@ public class FlightManagementController implements Initializable {
                 });
     }
 
-    private void loadFlightsFromDatabase() {
+    private void loadFlightsFromDatabase(boolean reload) {
         loadingIndicator.setVisible(true);
-        flights.clear();
-
-        String sql = "SELECT flight_id, f_code, f_name, route, source_place, destination_place, " +
-                "departure_time, arrival_time, t_eco_seatno, t_exe_seatno, " +
-                "eco_seats_booked, exe_seats_booked, is_active " +
-                "FROM flight_information ORDER BY f_code";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Flight flight = new Flight(
-                        rs.getString("f_code"),
-                        rs.getString("f_name"),
-                        rs.getString("route"),
-                        rs.getString("source_place"),
-                        rs.getString("destination_place"),
-                        rs.getString("departure_time"),
-                        rs.getString("arrival_time"),
-                        rs.getInt("t_eco_seatno"),
-                        rs.getInt("t_exe_seatno"),
-                        rs.getInt("eco_seats_booked"),
-                        rs.getInt("exe_seats_booked")
-                );
-                flight.setFlightId(rs.getInt("flight_id"));
-                flight.setActive(rs.getBoolean("is_active"));
-                flights.add(flight);
-            }
 
+        DataAccessExecutor.submit(() -> {
+            if (reload) {
+                FlightInventoryCache.reload();
+            }
+            return FlightInventoryCache.getAllFlights();
+        }, loaded -> {
+            flights.setAll(loaded);
             filteredFlights.setAll(flights);
-            updateStatusLabel("Loaded " + flights.size() + " flights");
+            updateStatusLabel(reload ? "Flight list refreshed" : "Loaded " + flights.size() + " flights");
             loadingIndicator.setVisible(false);
-
-        } catch (SQLException e) {
+        }, e -> {
             showAlert(Alert.AlertType.ERROR, "Database Error", "Error loading flights: " + e.getMessage());
             loadingIndicator.setVisible(false);
-        }
+        });
     }
 
 
@@ -272,6 +253,7 @@ public class FlightManagementController implements Initializable {
             if (result.isPresent() && result.get() == ButtonType.OK) {
                 try {
                     if (deleteFlightFromDatabase(selectedFlight.getFlightId())) {
+                        FlightInventoryCache.remove(selectedFlight.getFlightCode());
                         flights.remove(selectedFlight);
                         filteredFlights.setAll(flights);
                         clearForm();
@@ -371,106 +353,44 @@ public class FlightManagementController implements Initializable {
 
     @FXML
     private void handleRefresh() {
-        loadFlightsFromDatabase();
+        loadFlightsFromDatabase(true);
         searchField.clear();
-        updateStatusLabel("Flight list refreshed");
     }
 
 
     private boolean saveFlightToDatabase(Flight flight) throws SQLException {
-        String sql = """
-            INSERT INTO flight_information 
-            (f_code, f_name, route, source_place, destination_place, departure_time, arrival_time, 
-             t_eco_seatno, t_exe_seatno, eco_seats_booked, exe_seats_booked, is_active)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            setFlightParameters(pstmt, flight);
-            pstmt.setBoolean(12, true);
-
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                addFareForFlight(flight);
-                return true;
-            }
+        if (FlightRepository.insert(flight)) {
+            addFareForFlight(flight);
+            FlightInventoryCache.put(flight);
+            return true;
         }
         return false;
     }
 
     private boolean updateFlightInDatabase(Flight flight) throws SQLException {
-        String sql = """
-            UPDATE flight_information 
-            SET f_name = ?, route = ?, source_place = ?, destination_place = ?, 
-                departure_time = ?, arrival_time = ?, t_eco_seatno = ?, t_exe_seatno = ?,
-                eco_seats_booked = ?, exe_seats_booked = ?, is_active = ?
-            WHERE flight_id = ?
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, flight.getFlightName());
-            pstmt.setString(2, flight.getRoute());
-            pstmt.setString(3, flight.getSourcePlace());
-            pstmt.setString(4, flight.getDestinationPlace());
-            pstmt.setString(5, flight.getDepartureTime());
-            pstmt.setString(6, flight.getArrivalTime());
-            pstmt.setInt(7, flight.getEconomySeats());
-            pstmt.setInt(8, flight.getBusinessSeats());
-            pstmt.setInt(9, flight.getEcoSeatsBooked());
-            pstmt.setInt(10, flight.getExeSeatsBooked());
-            pstmt.setBoolean(11, flight.isActive());
-            pstmt.setInt(12, flight.getFlightId());
-
-            return pstmt.executeUpdate() > 0;
+        if (FlightRepository.update(flight)) {
+            FlightInventoryCache.put(flight);
+            return true;
         }
+        return false;
     }
 
     private boolean deleteFlightFromDatabase(int flightId) throws SQLException {
-        String checkSql = "SELECT COUNT(*) FROM reservations WHERE f_code = (SELECT f_code FROM flight_information WHERE flight_id = ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-
-            checkStmt.setInt(1, flightId);
-            ResultSet rs = checkStmt.executeQuery();
-            if (rs.next() && rs.getInt(1) > 0) {
-                showAlert(Alert.AlertType.ERROR, "Cannot Delete",
-                        "Cannot delete flight because there are existing reservations. " +
-                                "You can deactivate the flight instead.");
-                return false;
-            }
-        }
-
-        String sql = "DELETE FROM flight_information WHERE flight_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, flightId);
-            return pstmt.executeUpdate() > 0;
+        if (FlightRepository.hasReservations(flightId)) {
+            showAlert(Alert.AlertType.ERROR, "Cannot Delete",
+                    "Cannot delete flight because there are existing reservations. " +
+                            "You can deactivate the flight instead.");
+            return false;
         }
+        return FlightRepository.delete(flightId);
     }
 
     private void addFareForFlight(Flight flight) throws SQLException {
-        String[] fareSQL = {
-                "INSERT OR IGNORE INTO fare (route_code, f_code, class_type, base_fare) VALUES (?, ?, 'Economy', ?)",
-                "INSERT OR IGNORE INTO fare (route_code, f_code, class_type, base_fare) VALUES (?, ?, 'Business', ?)"
-        };
-
-        double ecoFare = calculateDefaultFare(flight, "Economy");
-        double busFare = calculateDefaultFare(flight, "Business");
-
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            for (String sql : fareSQL) {
-                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                    pstmt.setString(1, flight.getFlightCode() + "-ECO");
-                    pstmt.setString(2, flight.getFlightCode());
-                    pstmt.setDouble(3, sql.contains("Economy") ? ecoFare : busFare);
-                    pstmt.executeUpdate();
-                }
-            }
+        try {
+            FareRepository.insertForFlight(flight.getFlightCode(),
+                    calculateDefaultFare(flight, "Economy"), calculateDefaultFare(flight, "Business"));
+        } finally {
+            FareService.invalidate();
         }
     }
 
@@ -534,20 +454,6 @@ public class FlightManagementController implements Initializable {
         handleDelete();
     }
 
-    private void setFlightParameters(PreparedStatement pstmt, Flight flight) throws SQLException {
-        pstmt.setString(1, flight.getFlightCode());
-        pstmt.setString(2, flight.getFlightName());
-        pstmt.setString(3, flight.getRoute());
-        pstmt.setString(4, flight.getSourcePlace());
-        pstmt.setString(5, flight.getDestinationPlace());
-        pstmt.setString(6, flight.getDepartureTime());
-        pstmt.setString(7, flight.getArrivalTime());
-        pstmt.setInt(8, flight.getEconomySeats());
-        pstmt.setInt(9, flight.getBusinessSeats());
-        pstmt.setInt(10, flight.getEcoSeatsBooked());
-        pstmt.setInt(11, flight.getExeSeatsBooked());
-    }
-
     private void clearForm() {
         flightCodeField.clear();
         flightNameField.clear();
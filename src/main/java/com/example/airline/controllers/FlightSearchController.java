@@ -1,9 +1,13 @@
 package com.example.airline.controllers;
 
-import com.example.airline.DatabaseConnection;
+import com.example.airline.CardPool;
+import com.example.airline.DataAccessExecutor;
 import com.example.airline.Flight;
+import com.example.airline.Itinerary;
+import com.example.airline.ReservationService;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -14,12 +18,13 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+import java.math.BigDecimal;
 import java.net.URL;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.ResourceBundle;
 
 public class FlightSearchController implements Initializable {
@@ -34,8 +39,15 @@ public class FlightSearchController implements Initializable {
     @FXML private Label resultsLabel;
     @FXML private Pagination pagination;
 
-    private ObservableList<Flight> searchResults = FXCollections.observableArrayList();
+    private ObservableList<ReservationService.FlightOffer> searchResults = FXCollections.observableArrayList();
+    private List<ReservationService.ConnectionOffer> connectingResults = new ArrayList<>();
+    private LocalDate searchDate;
+    private Task<ReservationService.SearchResponse> searchTask;
     private static final int ITEMS_PER_PAGE = 5;
+    private static final int PAGES_IN_VIEW = 2;
+
+    private final CardPool<FlightCard> cardPool = new CardPool<>(FlightCard.class, FlightCard::new);
+    private final Deque<VBox> renderedPages = new ArrayDeque<>();
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -61,217 +73,150 @@ public class FlightSearchController implements Initializable {
     }
 
     private VBox createPage(int pageIndex) {
+        // Pagination shows at most the outgoing and incoming page, so older cards can be reused
+        if (renderedPages.size() == PAGES_IN_VIEW) {
+            cardPool.releaseAll(renderedPages.removeFirst());
+        }
+
         VBox page = new VBox(10);
         int fromIndex = pageIndex * ITEMS_PER_PAGE;
         int toIndex = Math.min(fromIndex + ITEMS_PER_PAGE, searchResults.size());
 
-        for (int i = fromIndex; i < toIndex; i++) {
-            Flight flight = searchResults.get(i);
-            page.getChildren().add(createFlightCard(flight));
+        for (ReservationService.FlightOffer offer : searchResults.subList(fromIndex, toIndex)) {
+            FlightCard card = cardPool.acquire();
+            card.bind(offer);
+            page.getChildren().add(card);
         }
 
+        renderedPages.addLast(page);
         return page;
     }
 
-    private HBox createFlightCard(Flight flight) {
-        HBox card = new HBox(15);
-        card.setStyle("-fx-background-color: #f8f9fa; -fx-padding: 20; -fx-border-color: #dee2e6; -fx-border-radius: 8; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.1), 5, 0, 0, 2);");
-        card.setPrefWidth(800);
-
-        VBox flightInfo = new VBox(8);
-        flightInfo.setPrefWidth(250);
-
-        Label airlineLabel = new Label(flight.getFlightCode() + " - " + flight.getFlightName());
-        airlineLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 16px; -fx-text-fill: #2c3e50;");
-
-        Label routeLabel = new Label(flight.getSourcePlace() + " → " + flight.getDestinationPlace());
-        routeLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #7f8c8d;");
-
-        Label timeLabel = new Label(flight.getDepartureTime() + " - " + flight.getArrivalTime());
-        timeLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #34495e;");
-
-        flightInfo.getChildren().addAll(airlineLabel, routeLabel, timeLabel);
-
-        VBox classInfo = new VBox(8);
-        classInfo.setPrefWidth(150);
-
-        String selectedClass = classCombo.getValue();
-        int availableSeats = selectedClass.equals("Economy") ?
-                flight.getAvailableEconomySeats() : flight.getAvailableBusinessSeats();
-
-        Label classLabel = new Label(selectedClass + " Class");
-        classLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
-
-        Label seatsLabel = new Label(availableSeats + " seats available");
-        seatsLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: " + (availableSeats > 10 ? "#27ae60" : availableSeats > 0 ? "#f39c12" : "#e74c3c") + ";");
-
-        classInfo.getChildren().addAll(classLabel, seatsLabel);
-
-        VBox fareInfo = new VBox(8);
-        fareInfo.setPrefWidth(150);
-
-        double fare = getFlightFare(flight, selectedClass);
-        Label fareLabel = new Label("M" + String.format("%.0f", fare));
-        fareLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 18px; -fx-text-fill: #e74c3c;");
-
-        Label perPersonLabel = new Label("per person");
-        perPersonLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #7f8c8d;");
-
-        fareInfo.getChildren().addAll(fareLabel, perPersonLabel);
-
-        Button selectButton = new Button("Select Flight");
-        selectButton.setStyle("-fx-background-color: #2ecc71; -fx-text-fill: white; -fx-font-weight: bold; -fx-padding: 10 20;");
-        selectButton.setOnAction(e -> selectFlight(flight, fare));
-
-        HBox.setHgrow(flightInfo, javafx.scene.layout.Priority.ALWAYS);
-        HBox.setHgrow(classInfo, javafx.scene.layout.Priority.ALWAYS);
-        HBox.setHgrow(fareInfo, javafx.scene.layout.Priority.ALWAYS);
-
-        card.getChildren().addAll(flightInfo, classInfo, fareInfo, selectButton);
-
-        return card;
-    }
-
     @FXML
     private void handleSearch() {
         String source = sourceCombo.getValue();
         String destination = destinationCombo.getValue();
         LocalDate travelDate = travelDatePicker.getValue();
-        String travelClass = classCombo.getValue();
-
-        if (source == null || destination == null) {
-            showAlert(Alert.AlertType.WARNING, "Input Required", "Please select both source and destination cities.");
-            return;
-        }
-
-        if (source.equals(destination)) {
-            showAlert(Alert.AlertType.WARNING, "Invalid Route", "Source and destination cannot be the same.");
-            return;
-        }
-
-        if (travelDate == null) {
-            showAlert(Alert.AlertType.WARNING, "Date Required", "Please select a travel date.");
-            return;
-        }
-
-        if (travelDate.isBefore(LocalDate.now())) {
-            showAlert(Alert.AlertType.WARNING, "Invalid Date", "Travel date cannot be in the past.");
-            return;
-        }
+        ReservationService.SearchRequest request =
+                new ReservationService.SearchRequest(source, destination, travelDate, classCombo.getValue(), true);
 
+        searchDate = travelDate;
         searchProgress.setVisible(true);
         searchResults.clear();
+        connectingResults.clear();
         flightResultsContainer.getChildren().clear();
 
-        new Thread(() -> {
-            try {
-                searchFlights(source, destination, travelClass);
-
-                javafx.application.Platform.runLater(() -> {
+        DataAccessExecutor.cancel(searchTask);
+        searchTask = DataAccessExecutor.submit(
+                () -> ReservationService.search(request),
+                results -> {
                     searchProgress.setVisible(false);
+                    searchResults.setAll(results.direct());
+                    connectingResults = results.connecting();
                     displaySearchResults();
-                });
-
-            } catch (Exception e) {
-                javafx.application.Platform.runLater(() -> {
+                },
+                e -> {
                     searchProgress.setVisible(false);
-                    showAlert(Alert.AlertType.ERROR, "Search Error", "Error searching flights: " + e.getMessage());
+                    if (e instanceof IllegalArgumentException) {
+                        showAlert(Alert.AlertType.WARNING, "Invalid Search", e.getMessage());
+                    } else {
+                        showAlert(Alert.AlertType.ERROR, "Search Error", "Error searching flights: " + e.getMessage());
+                    }
                 });
-            }
-        }).start();
-    }
-
-    private void searchFlights(String source, String destination, String travelClass) {
-        String sql = """
-            SELECT f.f_code, f.f_name, f.route, f.source_place, f.destination_place,
-                   f.departure_time, f.arrival_time, f.t_eco_seatno, f.t_exe_seatno,
-                   f.eco_seats_booked, f.exe_seats_booked, f.is_active
-            FROM flight_information f
-            WHERE f.source_place = ? AND f.destination_place = ? 
-            AND f.is_active = 1
-            ORDER BY f.departure_time
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, source);
-            pstmt.setString(2, destination);
-
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                Flight flight = new Flight(
-                        rs.getString("f_code"),
-                        rs.getString("f_name"),
-                        rs.getString("route"),
-                        rs.getString("source_place"),
-                        rs.getString("destination_place"),
-                        rs.getString("departure_time"),
-                        rs.getString("arrival_time"),
-                        rs.getInt("t_eco_seatno"),
-                        rs.getInt("t_exe_seatno"),
-                        rs.getInt("eco_seats_booked"),
-                        rs.getInt("exe_seats_booked")
-                );
-                flight.setActive(rs.getBoolean("is_active"));
-
-                int availableSeats = travelClass.equals("Economy") ?
-                        flight.getAvailableEconomySeats() : flight.getAvailableBusinessSeats();
-
-                if (availableSeats > 0) {
-                    searchResults.add(flight);
-                }
-            }
-
-        } catch (SQLException e) {
-            throw new RuntimeException("Database error during flight search: " + e.getMessage(), e);
-        }
     }
 
     private void displaySearchResults() {
         flightResultsContainer.getChildren().clear();
 
-        if (searchResults.isEmpty()) {
+        if (searchResults.isEmpty() && connectingResults.isEmpty()) {
             Label noResultsLabel = new Label("No flights found for the selected route and criteria.");
-            noResultsLabel.setStyle("-fx-font-size: 16px; -fx-text-fill: #7f8c8d; -fx-padding: 20;");
+            noResultsLabel.getStyleClass().add("results-empty");
             flightResultsContainer.getChildren().add(noResultsLabel);
             resultsLabel.setText("No flights found");
             pagination.setVisible(false);
         } else {
-            resultsLabel.setText("Found " + searchResults.size() + " flights");
+            resultsLabel.setText("Found " + searchResults.size() + " direct flights and " +
+                    connectingResults.size() + " connections");
+
+            if (searchResults.isEmpty()) {
+                pagination.setVisible(false);
+            } else {
+                int pageCount = (int) Math.ceil((double) searchResults.size() / ITEMS_PER_PAGE);
+                pagination.setPageCount(pageCount);
+                pagination.setVisible(true);
+            }
 
-            int pageCount = (int) Math.ceil((double) searchResults.size() / ITEMS_PER_PAGE);
-            pagination.setPageCount(pageCount);
-            pagination.setVisible(true);
+            if (!connectingResults.isEmpty()) {
+                Label connectionsLabel = new Label("Connecting flights");
+                connectionsLabel.getStyleClass().add("results-heading");
+                flightResultsContainer.getChildren().add(connectionsLabel);
+
+                for (ReservationService.ConnectionOffer offer : connectingResults) {
+                    flightResultsContainer.getChildren().add(createItineraryCard(offer));
+                }
+            }
 
             showAlert(Alert.AlertType.INFORMATION, "Search Complete",
-                    "Found " + searchResults.size() + " flights from " +
-                            sourceCombo.getValue() + " to " + destinationCombo.getValue());
+                    "Found " + searchResults.size() + " direct flights and " + connectingResults.size() +
+                            " connections from " + sourceCombo.getValue() + " to " + destinationCombo.getValue());
         }
     }
 
-    private double getFlightFare(Flight flight, String travelClass) {
-        String sql = "SELECT base_fare FROM fare WHERE f_code = ? AND class_type = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    private HBox createItineraryCard(ReservationService.ConnectionOffer offer) {
+        Itinerary itinerary = offer.itinerary();
+        HBox card = new HBox(15);
+        card.getStyleClass().add("result-card");
+        card.setPrefWidth(800);
 
-            pstmt.setString(1, flight.getFlightCode());
-            pstmt.setString(2, travelClass);
+        VBox legsInfo = new VBox(6);
+        legsInfo.setPrefWidth(400);
+        for (int i = 0; i < itinerary.getLegs().size(); i++) {
+            Flight leg = itinerary.getLegs().get(i);
+            int departure = itinerary.getLegDepartureMinutes().get(i);
 
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getDouble("base_fare");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error getting fare for flight " + flight.getFlightCode() + ": " + e.getMessage());
+            Label legLabel = new Label(leg.getFlightCode() + "  " + leg.getSourcePlace() + " → " +
+                    leg.getDestinationPlace() + "  " + Itinerary.formatMinute(departure) + " - " + leg.getArrivalTime());
+            legLabel.getStyleClass().add("card-leg");
+            legsInfo.getChildren().add(legLabel);
         }
 
-        return travelClass.equals("Economy") ? 1500.0 : 2500.0;
+        VBox summaryInfo = new VBox(8);
+        summaryInfo.setPrefWidth(200);
+
+        int stops = itinerary.getStops();
+        Label stopsLabel = new Label(stops + (stops == 1 ? " stop" : " stops"));
+        stopsLabel.getStyleClass().add("card-heading");
+
+        int totalMinutes = itinerary.getTotalMinutes();
+        Label durationLabel = new Label(Itinerary.formatMinute(itinerary.getDepartureMinute()) + " → " +
+                Itinerary.formatMinute(itinerary.getArrivalMinute()) +
+                (itinerary.getArrivalDayOffset() > 0 ? " (+" + itinerary.getArrivalDayOffset() + ")" : "") +
+                "  " + (totalMinutes / 60) + "h " + (totalMinutes % 60) + "m");
+        durationLabel.getStyleClass().add("card-duration");
+
+        summaryInfo.getChildren().addAll(stopsLabel, durationLabel);
+
+        VBox fareInfo = new VBox(8);
+        fareInfo.setPrefWidth(150);
+
+        Label fareLabel = new Label("M" + String.format("%.0f", offer.totalFare()));
+        fareLabel.getStyleClass().add("card-fare");
+
+        Label perPersonLabel = new Label("per person, all legs");
+        perPersonLabel.getStyleClass().add("card-note");
+
+        fareInfo.getChildren().addAll(fareLabel, perPersonLabel);
+
+        HBox.setHgrow(legsInfo, javafx.scene.layout.Priority.ALWAYS);
+        HBox.setHgrow(summaryInfo, javafx.scene.layout.Priority.ALWAYS);
+        HBox.setHgrow(fareInfo, javafx.scene.layout.Priority.ALWAYS);
+
+        card.getChildren().addAll(legsInfo, summaryInfo, fareInfo);
+
+        return card;
     }
 
-    private void selectFlight(Flight flight, double fare) {
+    private void selectFlight(Flight flight, BigDecimal fare) {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
         confirm.setTitle("Confirm Flight Selection");
         confirm.setHeaderText("Flight Selected: " + flight.getFlightCode());
@@ -289,7 +234,7 @@ public class FlightSearchController implements Initializable {
         }
     }
 
-    private void openReservationForm(Flight selectedFlight, double fare) {
+    private void openReservationForm(Flight selectedFlight, BigDecimal fare) {
         try {
             Stage searchStage = (Stage) sourceCombo.getScene().getWindow();
             searchStage.close();
@@ -303,7 +248,7 @@ public class FlightSearchController implements Initializable {
                     sourceCombo.getValue(),
                     destinationCombo.getValue(),
                     classCombo.getValue(),
-                    travelDatePicker.getValue(),
+                    searchDate,
                     fare
             );
 
@@ -320,11 +265,14 @@ public class FlightSearchController implements Initializable {
 
     @FXML
     private void handleClear() {
+        DataAccessExecutor.cancel(searchTask);
+        searchProgress.setVisible(false);
         sourceCombo.setValue("Maseru");
         destinationCombo.setValue("Maseru");
         travelDatePicker.setValue(LocalDate.now().plusDays(1));
         classCombo.setValue("Economy");
         searchResults.clear();
+        connectingResults.clear();
         flightResultsContainer.getChildren().clear();
         pagination.setVisible(false);
         resultsLabel.setText("Enter search criteria");
@@ -332,6 +280,7 @@ public class FlightSearchController implements Initializable {
 
     @FXML
     private void handleClose() {
+        DataAccessExecutor.cancel(searchTask);
         Stage stage = (Stage) sourceCombo.getScene().getWindow();
         stage.close();
     }
@@ -343,4 +292,67 @@ public class FlightSearchController implements Initializable {
         alert.setContentText(message);
         alert.showAndWait();
     }
+
+    /**
+     * Card for one direct flight. The node tree is built once; bind() swaps in the next flight's data.
+     */
+    private class FlightCard extends HBox {
+
+        private final Label airlineLabel = new Label();
+        private final Label routeLabel = new Label();
+        private final Label timeLabel = new Label();
+        private final Label classLabel = new Label();
+        private final Label seatsLabel = new Label();
+        private final Label fareLabel = new Label();
+
+        private Flight flight;
+        private BigDecimal fare;
+
+        FlightCard() {
+            super(15);
+            getStyleClass().add("result-card");
+            setPrefWidth(800);
+
+            airlineLabel.getStyleClass().add("card-title");
+            routeLabel.getStyleClass().add("card-subtitle");
+            timeLabel.getStyleClass().add("card-detail");
+            VBox flightInfo = new VBox(8, airlineLabel, routeLabel, timeLabel);
+            flightInfo.setPrefWidth(250);
+
+            classLabel.getStyleClass().add("card-heading");
+            VBox classInfo = new VBox(8, classLabel, seatsLabel);
+            classInfo.setPrefWidth(150);
+
+            fareLabel.getStyleClass().add("card-fare");
+            Label perPersonLabel = new Label("per person");
+            perPersonLabel.getStyleClass().add("card-note");
+            VBox fareInfo = new VBox(8, fareLabel, perPersonLabel);
+            fareInfo.setPrefWidth(150);
+
+            Button selectButton = new Button("Select Flight");
+            selectButton.getStyleClass().add("select-flight-button");
+            selectButton.setOnAction(e -> selectFlight(flight, fare));
+
+            HBox.setHgrow(flightInfo, javafx.scene.layout.Priority.ALWAYS);
+            HBox.setHgrow(classInfo, javafx.scene.layout.Priority.ALWAYS);
+            HBox.setHgrow(fareInfo, javafx.scene.layout.Priority.ALWAYS);
+
+            getChildren().addAll(flightInfo, classInfo, fareInfo, selectButton);
+        }
+
+        void bind(ReservationService.FlightOffer offer) {
+            flight = offer.flight();
+            fare = offer.fare();
+            int availableSeats = offer.availableSeats();
+
+            airlineLabel.setText(flight.getFlightCode() + " - " + flight.getFlightName());
+            routeLabel.setText(flight.getSourcePlace() + " → " + flight.getDestinationPlace());
+            timeLabel.setText(flight.getDepartureTime() + " - " + flight.getArrivalTime());
+            classLabel.setText(offer.seatClass() + " Class");
+            seatsLabel.setText(availableSeats + " seats available");
+            seatsLabel.getStyleClass().removeAll("seats-plenty", "seats-low", "seats-none");
+            seatsLabel.getStyleClass().add(availableSeats > 10 ? "seats-plenty" : availableSeats > 0 ? "seats-low" : "seats-none");
+            fareLabel.setText("M" + String.format("%.0f", fare));
+        }
+    }
 }
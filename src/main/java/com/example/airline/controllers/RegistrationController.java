@@ -1,6 +1,7 @@
 package com.example.airline.controllers;
 
-import com.example.airline.DatabaseConnection;
+import com.example.airline.User;
+import com.example.airline.UserRepository;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -10,8 +11,6 @@ import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.util.ResourceBundle;
 
 public class RegistrationController implements Initializable {
@@ -72,22 +71,9 @@ public class RegistrationController implements Initializable {
     }
 
     private boolean registerUser() throws Exception {
-        String sql = "INSERT INTO users (username, password, role, full_name, email, phone, address, is_active) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, usernameField.getText());
-            pstmt.setString(2, passwordField.getText());
-            pstmt.setString(3, "CUSTOMER");
-            pstmt.setString(4, fullNameField.getText());
-            pstmt.setString(5, emailField.getText());
-            pstmt.setString(6, phoneField.getText());
-            pstmt.setString(7, addressArea.getText());
-            pstmt.setBoolean(8, true);
-
-            return pstmt.executeUpdate() > 0;
-        }
+        User user = new User(usernameField.getText(), passwordField.getText(), "CUSTOMER",
+                fullNameField.getText(), emailField.getText());
+        return UserRepository.insert(user, phoneField.getText(), addressArea.getText());
     }
 
     private boolean validateForm() {
@@ -1,17 +1,24 @@
 package com.example.airline.controllers;
 
-import com.example.airline.DatabaseConnection;
+import com.example.airline.BackupService;
+import com.example.airline.DataAccessExecutor;
+import com.example.airline.RefundPolicy;
+import com.example.airline.SettingsStore;
+import com.example.airline.User;
+import com.example.airline.UserRepository;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.function.Consumer;
 
 public class SystemSettingsController implements Initializable {
 
@@ -24,6 +31,7 @@ public class SystemSettingsController implements Initializable {
     @FXML private Spinner<Integer> maxSeatsSpinner;
     @FXML private Spinner<Integer> cancellationHoursSpinner;
     @FXML private Spinner<Double> taxRateSpinner;
+    @FXML private TextField refundBandsField;
 
     @FXML private CheckBox allowOnlineCheckin;
     @FXML private CheckBox sendEmailNotifications;
@@ -33,6 +41,8 @@ public class SystemSettingsController implements Initializable {
     @FXML private PasswordField newPasswordField;
     @FXML private PasswordField confirmPasswordField;
 
+    @FXML private CheckBox compressBackupCheck;
+
     @FXML private Label statusLabel;
 
     @Override
@@ -99,14 +109,73 @@ public class SystemSettingsController implements Initializable {
 
     @FXML
     private void handleBackup() {
-        try {
-            performBackup();
+        boolean compress = compressBackupCheck.isSelected();
+        Task<BackupService.BackupResult> task = new Task<>() {
+            @Override
+            protected BackupService.BackupResult call() throws Exception {
+                return BackupService.backup(compress, (remaining, total) -> updateProgress(total - remaining, total));
+            }
+        };
+
+        runAdminTask(task, "Backing up database", result -> {
             updateStatus("Database backup created successfully");
             showAlert(Alert.AlertType.INFORMATION, "Backup Complete",
-                    "Database backup created successfully!\nBackup file: airline_backup.db");
-        } catch (Exception e) {
-            showAlert(Alert.AlertType.ERROR, "Backup Error", "Failed to create backup: " + e.getMessage());
+                    "Database backup created and verified!\nBackup file: " + result.file().toAbsolutePath() +
+                            "\nSize: " + result.bytes() / 1024 + " KB");
+        }, "Failed to create backup: ");
+    }
+
+    @FXML
+    private void handleRestore() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Choose Backup to Restore");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Database backups", "*.db", "*.db.gz"));
+        if (java.nio.file.Files.isDirectory(BackupService.BACKUP_DIR)) {
+            chooser.setInitialDirectory(BackupService.BACKUP_DIR.toFile());
         }
+
+        java.io.File file = chooser.showOpenDialog(statusLabel.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Confirm Restore");
+        confirm.setHeaderText("Restore " + file.getName());
+        confirm.setContentText("All current data will be replaced with the contents of this backup. " +
+                "Other open windows should be refreshed afterwards. Continue?");
+        if (confirm.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+
+        Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                BackupService.restore(file.toPath(), (remaining, total) -> updateProgress(total - remaining, total));
+                return null;
+            }
+        };
+
+        runAdminTask(task, "Restoring database", result -> {
+            updateStatus("Database restored from " + file.getName());
+            showAlert(Alert.AlertType.INFORMATION, "Restore Complete",
+                    "Database restored from " + file.getName() + " and verified.");
+        }, "Failed to restore backup: ");
+    }
+
+    private <T> void runAdminTask(Task<T> task, String action, Consumer<T> onSuccess, String failurePrefix) {
+        updateStatus(action + "...");
+        task.progressProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal.doubleValue() >= 0) {
+                updateStatus(action + "... " + Math.round(newVal.doubleValue() * 100) + "%");
+            }
+        });
+        task.setOnSucceeded(event -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(event -> {
+            updateStatus(action + " failed");
+            showAlert(Alert.AlertType.ERROR, "Backup Error", failurePrefix + task.getException().getMessage());
+        });
+        DataAccessExecutor.execute(task);
     }
 
     @FXML
@@ -116,120 +185,72 @@ public class SystemSettingsController implements Initializable {
     }
 
     private void loadSettings() {
-        airlineNameField.setText("Skyline Airways");
-        contactEmailField.setText("info@skylineairways.com");
-        contactPhoneField.setText("+1-555-0123");
-        websiteField.setText("www.skylineairways.com");
-        addressArea.setText("123 Airport Road\nAviation City, AC 12345");
-
-        allowOnlineCheckin.setSelected(true);
-        sendEmailNotifications.setSelected(true);
-        maintenanceMode.setSelected(false);
+        DataAccessExecutor.submit(SettingsStore::get, settings -> {
+            applySettings(settings);
+            updateStatus("Settings loaded successfully");
+        }, e -> {
+            applySettings(SettingsStore.defaults());
+            updateStatus("Could not load settings, showing defaults");
+            System.err.println("Error loading settings: " + e.getMessage());
+        });
+    }
 
-        updateStatus("Settings loaded successfully");
+    private void applySettings(SettingsStore.Settings settings) {
+        airlineNameField.setText(settings.getString(SettingsStore.AIRLINE_NAME));
+        contactEmailField.setText(settings.getString(SettingsStore.CONTACT_EMAIL));
+        contactPhoneField.setText(settings.getString(SettingsStore.CONTACT_PHONE));
+        websiteField.setText(settings.getString(SettingsStore.WEBSITE));
+        addressArea.setText(settings.getString(SettingsStore.ADDRESS));
+
+        maxSeatsSpinner.getValueFactory().setValue(settings.getInt(SettingsStore.MAX_SEATS));
+        cancellationHoursSpinner.getValueFactory().setValue(settings.getInt(SettingsStore.CANCELLATION_HOURS));
+        taxRateSpinner.getValueFactory().setValue(settings.getDouble(SettingsStore.TAX_RATE));
+        refundBandsField.setText(settings.getString(SettingsStore.REFUND_BANDS));
+
+        allowOnlineCheckin.setSelected(settings.getBoolean(SettingsStore.ONLINE_CHECKIN));
+        sendEmailNotifications.setSelected(settings.getBoolean(SettingsStore.EMAIL_NOTIFICATIONS));
+        maintenanceMode.setSelected(settings.getBoolean(SettingsStore.MAINTENANCE_MODE));
     }
 
     private void saveGeneralSettings() throws SQLException {
-        String sql = """
-            INSERT OR REPLACE INTO system_settings (setting_key, setting_value) 
-            VALUES 
-            ('airline_name', ?),
-            ('contact_email', ?),
-            ('contact_phone', ?),
-            ('website', ?),
-            ('address', ?)
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, airlineNameField.getText());
-            pstmt.setString(2, contactEmailField.getText());
-            pstmt.setString(3, contactPhoneField.getText());
-            pstmt.setString(4, websiteField.getText());
-            pstmt.setString(5, addressArea.getText());
-
-            pstmt.executeUpdate();
-        }
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put(SettingsStore.AIRLINE_NAME, airlineNameField.getText());
+        values.put(SettingsStore.CONTACT_EMAIL, contactEmailField.getText());
+        values.put(SettingsStore.CONTACT_PHONE, contactPhoneField.getText());
+        values.put(SettingsStore.WEBSITE, websiteField.getText());
+        values.put(SettingsStore.ADDRESS, addressArea.getText());
+
+        SettingsStore.save(values);
     }
 
     private void saveBusinessSettings() throws SQLException {
-        String sql = """
-            INSERT OR REPLACE INTO system_settings (setting_key, setting_value) 
-            VALUES 
-            ('max_seats', ?),
-            ('cancellation_hours', ?),
-            ('tax_rate', ?),
-            ('online_checking', ?),
-            ('email_notifications', ?),
-            ('maintenance_mode', ?)
-            """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, maxSeatsSpinner.getValue());
-            pstmt.setInt(2, cancellationHoursSpinner.getValue());
-            pstmt.setDouble(3, taxRateSpinner.getValue());
-            pstmt.setBoolean(4, allowOnlineCheckin.isSelected());
-            pstmt.setBoolean(5, sendEmailNotifications.isSelected());
-            pstmt.setBoolean(6, maintenanceMode.isSelected());
-
-            pstmt.executeUpdate();
-        }
+        // Rejects a malformed band list before anything is written
+        String refundBands = RefundPolicy.parse(refundBandsField.getText().trim()).getBands();
+
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put(SettingsStore.MAX_SEATS, String.valueOf(maxSeatsSpinner.getValue()));
+        values.put(SettingsStore.CANCELLATION_HOURS, String.valueOf(cancellationHoursSpinner.getValue()));
+        values.put(SettingsStore.TAX_RATE, String.valueOf(taxRateSpinner.getValue()));
+        values.put(SettingsStore.REFUND_BANDS, refundBands);
+        values.put(SettingsStore.ONLINE_CHECKIN, String.valueOf(allowOnlineCheckin.isSelected()));
+        values.put(SettingsStore.EMAIL_NOTIFICATIONS, String.valueOf(sendEmailNotifications.isSelected()));
+        values.put(SettingsStore.MAINTENANCE_MODE, String.valueOf(maintenanceMode.isSelected()));
+
+        SettingsStore.save(values);
     }
 
     private void saveSecuritySettings() throws SQLException {
-        String verifySql = "SELECT password FROM users WHERE username = 'admin'";
-        String updateSql = "UPDATE users SET password = ? WHERE username = 'admin'";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement verifyStmt = conn.prepareStatement(verifySql);
-             PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-
-            ResultSet rs = verifyStmt.executeQuery();
-            if (rs.next()) {
-                String currentPassword = rs.getString("password");
-                if (!currentPassword.equals(currentPasswordField.getText())) {
-                    throw new SQLException("Current password is incorrect");
-                }
-
-                updateStmt.setString(1, newPasswordField.getText());
-                updateStmt.executeUpdate();
+        User admin = UserRepository.findByUsername("admin");
+        if (admin != null) {
+            if (!admin.getPassword().equals(currentPasswordField.getText())) {
+                throw new SQLException("Current password is incorrect");
             }
+            UserRepository.updatePassword(admin.getUserId(), newPasswordField.getText());
         }
     }
 
-    private void performBackup() throws Exception {
-        java.nio.file.Path backupDir = java.nio.file.Paths.get("backups");
-        if (!java.nio.file.Files.exists(backupDir)) {
-            java.nio.file.Files.createDirectories(backupDir);
-        }
-
-        String timestamp = java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String backupFile = "airline_backup_" + timestamp + ".db";
-
-        java.nio.file.Path source = java.nio.file.Paths.get("airline_reservation.db");
-        java.nio.file.Path target = backupDir.resolve(backupFile);
-
-        java.nio.file.Files.copy(source, target, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-    }
-
     private void resetToDefaults() {
-        airlineNameField.setText("Skyline Airways");
-        contactEmailField.setText("info@skylineairways.com");
-        contactPhoneField.setText("+1-555-0123");
-        websiteField.setText("www.skylineairways.com");
-        addressArea.setText("123 Airport Road\nAviation City, AC 12345");
-
-        maxSeatsSpinner.getValueFactory().setValue(150);
-        cancellationHoursSpinner.getValueFactory().setValue(24);
-        taxRateSpinner.getValueFactory().setValue(5.0);
-
-        allowOnlineCheckin.setSelected(true);
-        sendEmailNotifications.setSelected(true);
-        maintenanceMode.setSelected(false);
-
+        applySettings(SettingsStore.defaults());
         clearPasswordFields();
     }
 
@@ -1,8 +1,11 @@
 package com.example.airline.controllers;
 
-import com.example.airline.DatabaseConnection;
+import com.example.airline.DataAccessExecutor;
+import com.example.airline.User;
+import com.example.airline.UserRepository;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -10,8 +13,7 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.sql.*;
-import java.time.LocalDateTime;
+import java.sql.SQLException;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -37,6 +39,7 @@ public class UserManagementController implements Initializable {
     @FXML private Label statusLabel;
 
     private ObservableList<User> users = FXCollections.observableArrayList();
+    private Task<Integer> loadTask;
     private User selectedUser;
 
     @Override
@@ -228,94 +231,34 @@ public class UserManagementController implements Initializable {
     }
 
     private void loadUsers() {
+        DataAccessExecutor.cancel(loadTask);
         loadingIndicator.setVisible(true);
         users.clear();
 
-        String sql = "SELECT user_id, username, password, role, full_name, email, is_active, created_at FROM users ORDER BY created_at DESC";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                User user = new User(
-                        rs.getString("username"),
-                        rs.getString("password"),
-                        rs.getString("role"),
-                        rs.getString("full_name"),
-                        rs.getString("email")
-                );
-                user.setUserId(rs.getInt("user_id"));
-                user.setActive(rs.getBoolean("is_active"));
-                user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-                users.add(user);
-            }
-
-            updateStatus("Loaded " + users.size() + " users");
+        loadTask = DataAccessExecutor.<User>stream(UserRepository::findAll,
+                DataAccessExecutor.DEFAULT_BATCH_SIZE, users::addAll, count -> {
+            updateStatus("Loaded " + count + " users");
             loadingIndicator.setVisible(false);
-
-        } catch (SQLException e) {
+        }, e -> {
             showAlert(Alert.AlertType.ERROR, "Database Error", "Error loading users: " + e.getMessage());
             loadingIndicator.setVisible(false);
-        }
+        });
     }
 
     private boolean addUserToDatabase(User user) throws SQLException {
-        String sql = "INSERT INTO users (username, password, role, full_name, email, is_active) VALUES (?, ?, ?, ?, ?, ?)";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, user.getPassword()); // In real app, hash this password
-            pstmt.setString(3, user.getRole());
-            pstmt.setString(4, user.getFullName());
-            pstmt.setString(5, user.getEmail());
-            pstmt.setBoolean(6, user.isActive());
-
-            return pstmt.executeUpdate() > 0;
-        }
+        return UserRepository.insert(user);
     }
 
     private boolean updateUserInDatabase(User user) throws SQLException {
-        String sql = "UPDATE users SET username = ?, role = ?, full_name = ?, email = ?, is_active = ? WHERE user_id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, user.getRole());
-            pstmt.setString(3, user.getFullName());
-            pstmt.setString(4, user.getEmail());
-            pstmt.setBoolean(5, user.isActive());
-            pstmt.setInt(6, user.getUserId());
-
-            return pstmt.executeUpdate() > 0;
-        }
+        return UserRepository.update(user);
     }
 
     private boolean deleteUserFromDatabase(int userId) throws SQLException {
-        String sql = "DELETE FROM users WHERE user_id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, userId);
-            return pstmt.executeUpdate() > 0;
-        }
+        return UserRepository.delete(userId);
     }
 
     private boolean resetPasswordInDatabase(int userId, String newPassword) throws SQLException {
-        String sql = "UPDATE users SET password = ? WHERE user_id = ?";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, newPassword); // In real app, hash this password
-            pstmt.setInt(2, userId);
-
-            return pstmt.executeUpdate() > 0;
-        }
+        return UserRepository.updatePassword(userId, newPassword);
     }
 
     private User createUserFromForm() {
@@ -388,55 +331,4 @@ public class UserManagementController implements Initializable {
         alert.setContentText(message);
         alert.showAndWait();
     }
-
-    // User model class
-    public static class User {
-        private int userId;
-        private String username;
-        private String password;
-        private String role;
-        private String fullName;
-        private String email;
-        private boolean isActive;
-        private LocalDateTime createdAt;
-
-        public User(String username, String password, String role, String fullName, String email) {
-            this.username = username;
-            this.password = password;
-            this.role = role;
-            this.fullName = fullName;
-            this.email = email;
-            this.isActive = true;
-            this.createdAt = LocalDateTime.now();
-        }
-
-        // Getters and Setters
-        public int getUserId() { return userId; }
-        public void setUserId(int userId) { this.userId = userId; }
-
-        public String getUsername() { return username; }
-        public void setUsername(String username) { this.username = username; }
-
-        public String getPassword() { return password; }
-        public void setPassword(String password) { this.password = password; }
-
-        public String getRole() { return role; }
-        public void setRole(String role) { this.role = role; }
-
-        public String getFullName() { return fullName; }
-        public void setFullName(String fullName) { this.fullName = fullName; }
-
-        public String getEmail() { return email; }
-        public void setEmail(String email) { this.email = email; }
-
-        public boolean isActive() { return isActive; }
-        public void setActive(boolean active) { isActive = active; }
-
-        public LocalDateTime getCreatedAt() { return createdAt; }
-        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
-
-        // Derived properties for table display
-        public String getStatus() { return isActive ? "Active" : "Inactive"; }
-    }
 }
-
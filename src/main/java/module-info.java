@@ -3,6 +3,8 @@ module com.example.airline {
     requires javafx.fxml;
     requires java.sql;
     requires java.desktop;
+    requires jdk.httpserver;
+    requires org.xerial.sqlitejdbc;
 
 
     opens com.example.airline to javafx.fxml;
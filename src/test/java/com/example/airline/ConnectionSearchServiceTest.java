@@ -0,0 +1,68 @@
+package com.example.airline;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConnectionSearchServiceTest {
+
+    private static final LocalDate TRAVEL_DATE = LocalDate.of(2030, 1, 15);
+
+    @Test
+    void laterArrivalAtHubIsKeptWhenEarlierOneExceedsLayover() throws SQLException {
+        // The 07:00 arrival would wait three hours for the 10:00 departure, over the two-hour limit
+        List<Flight> flights = List.of(
+                flight("AA100", "Maseru", "Durban", "06:00", "07:00"),
+                flight("AA200", "Maseru", "Durban", "08:00", "09:00"),
+                flight("BB300", "Durban", "Capetown", "10:00", "11:00"));
+
+        List<Itinerary> results = ConnectionSearchService.search(flights, "Maseru", "Capetown", TRAVEL_DATE,
+                3, 45, 120, 10, (flight, date) -> true);
+
+        assertEquals(1, results.size());
+        assertEquals(List.of("AA200", "BB300"), codes(results.get(0)));
+        assertEquals(11 * 60, results.get(0).getArrivalMinute());
+    }
+
+    @Test
+    void earlierArrivalAtHubIsUsedWhenBothMakeTheConnection() throws SQLException {
+        List<Flight> flights = List.of(
+                flight("AA100", "Maseru", "Durban", "06:00", "07:00"),
+                flight("AA200", "Maseru", "Durban", "08:00", "09:00"),
+                flight("BB300", "Durban", "Capetown", "10:00", "11:00"));
+
+        List<Itinerary> results = ConnectionSearchService.search(flights, "Maseru", "Capetown", TRAVEL_DATE,
+                3, 45, 240, 10, (flight, date) -> true);
+
+        // Both reach Capetown at 11:00, so the later departure dominates
+        assertEquals(1, results.size());
+        assertEquals(List.of("AA200", "BB300"), codes(results.get(0)));
+        assertEquals(8 * 60, results.get(0).getDepartureMinute());
+    }
+
+    @Test
+    void soldOutLegIsSkippedForTheOtherArrival() throws SQLException {
+        List<Flight> flights = List.of(
+                flight("AA100", "Maseru", "Durban", "06:00", "07:00"),
+                flight("AA200", "Maseru", "Durban", "08:00", "09:00"),
+                flight("BB300", "Durban", "Capetown", "10:00", "11:00"));
+
+        List<Itinerary> results = ConnectionSearchService.search(flights, "Maseru", "Capetown", TRAVEL_DATE,
+                3, 45, 240, 10, (flight, date) -> !flight.getFlightCode().equals("AA200"));
+
+        assertEquals(1, results.size());
+        assertEquals(List.of("AA100", "BB300"), codes(results.get(0)));
+    }
+
+    private static Flight flight(String code, String source, String destination, String departure, String arrival) {
+        return new Flight(code, code, source + "-" + destination, source, destination, departure, arrival, 10, 2, 0, 0);
+    }
+
+    private static List<String> codes(Itinerary itinerary) {
+        return itinerary.getLegs().stream().map(Flight::getFlightCode).toList();
+    }
+}